@@ -0,0 +1,138 @@
+package com.dmdev.jdbc.starter;
+
+import com.dmdev.jdbc.starter.bulk.BulkCopyDao;
+import com.dmdev.jdbc.starter.dto.BulkResult;
+import com.dmdev.jdbc.starter.entity.Flight;
+import com.dmdev.jdbc.starter.entity.Ticket;
+import com.dmdev.jdbc.starter.util.ConnectionPoolManager;
+import com.dmdev.jdbc.starter.util.SchemaMigrator;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Random;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Seeds the benchmark database: creates the schema from {@code schema.sql} and the reference data
+ * from {@code init.sql} when the tables are missing, applies the pending {@link SchemaMigrator}
+ * scripts, then tops {@code ticket} up to the requested row count with generated flights and tickets
+ * loaded through COPY. Generation is deterministic, so two builds measured against the same row count
+ * see the same data.
+ */
+public final class DataGenerator {
+
+    private static final int TICKETS_PER_FLIGHT = 150;
+    private static final String SEAT_LETTERS = "ABCDEF";
+    private static final String[] AIRPORTS = {"MNK", "LDN", "MSK", "BSL"};
+    private static final String[] STATUSES = {"SCHEDULED", "DEPARTED", "ARRIVED", "CANCELLED"};
+    private static final String[] FIRST_NAMES = {"Иван", "Петр", "Светлана", "Андрей", "Олег", "Екатерина",
+            "Максим", "Лариса", "Дмитрий", "Юлия", "Анастасия", "Кирилл"};
+    private static final String[] LAST_NAMES = {"Иванов", "Петров", "Светикова", "Андреев", "Рубцов", "Петренко",
+            "Гребцов", "Тельникова", "Воснецов", "Швец", "Шепелева", "Сарычев"};
+
+    private DataGenerator() {
+    }
+
+    public static void main(String[] args) {
+        int tickets = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        try {
+            System.out.println(seed(tickets));
+        } finally {
+            ConnectionPoolManager.closePool();
+        }
+    }
+
+    public static BulkResult seed(int tickets) {
+        try (Connection connection = ConnectionPoolManager.get()) {
+            if (!tableExists(connection, "ticket")) {
+                runScript(connection, "schema.sql");
+                runScript(connection, "init.sql");
+            }
+            SchemaMigrator.migrate();
+            long missing = tickets - count(connection, "SELECT count(*) FROM ticket");
+            if (missing <= 0) {
+                return new BulkResult(0, Duration.ZERO);
+            }
+
+            int flights = (int) ((missing + TICKETS_PER_FLIGHT - 1) / TICKETS_PER_FLIGHT);
+            long firstFlightId = count(connection, "SELECT coalesce(max(id), 0) FROM flight") + 1;
+            Random random = new Random(firstFlightId);
+            BulkCopyDao bulkCopyDao = BulkCopyDao.getInstance();
+            bulkCopyDao.copyInFlights(IntStream.range(0, flights)
+                    .mapToObj(i -> flight(firstFlightId + i, random)));
+
+            long lastFlightId = count(connection, "SELECT max(id) FROM flight");
+            long generatedFlights = lastFlightId - firstFlightId + 1;
+            return bulkCopyDao.copyInTickets(Stream.iterate(0L, i -> i + 1)
+                    .limit(missing)
+                    .map(i -> ticket(firstFlightId + i % generatedFlights, (int) (i / generatedFlights), random)));
+        } catch (SQLException e) {
+            throw new IllegalStateException("Unable to seed the benchmark database", e);
+        }
+    }
+
+    private static Flight flight(long number, Random random) {
+        int from = random.nextInt(AIRPORTS.length);
+        int to = (from + 1 + random.nextInt(AIRPORTS.length - 1)) % AIRPORTS.length;
+        LocalDateTime departure = LocalDateTime.of(2020, 1, 1, 0, 0)
+                .plusMinutes(random.nextInt(3 * 365 * 24 * 60));
+        return new Flight(null,
+                "GN" + number % 10_000,
+                departure,
+                AIRPORTS[from],
+                departure.plusMinutes(60 + random.nextInt(300)),
+                AIRPORTS[to],
+                1 + random.nextInt(4),
+                STATUSES[random.nextInt(STATUSES.length)]);
+    }
+
+    private static Ticket ticket(long flightId, int seat, Random random) {
+        String seatNo = (seat / SEAT_LETTERS.length() + 1) + String.valueOf(SEAT_LETTERS.charAt(seat % SEAT_LETTERS.length()));
+        String passengerName = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " " + LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+        Flight flight = new Flight(flightId, null, null, null, null, null, null, null);
+        return new Ticket(null,
+                Integer.toString(random.nextInt(Integer.MAX_VALUE), 36).toUpperCase(),
+                passengerName,
+                flight,
+                seatNo,
+                BigDecimal.valueOf(5_000 + random.nextInt(30_000), 2));
+    }
+
+    private static boolean tableExists(Connection connection, String table) throws SQLException {
+        try (ResultSet resultSet = connection.getMetaData().getTables(null, null, table, new String[]{"TABLE"})) {
+            return resultSet.next();
+        }
+    }
+
+    private static long count(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(sql)) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+
+    public static void runScript(Connection connection, String resource) throws SQLException {
+        try (InputStream inputStream = DataGenerator.class.getClassLoader().getResourceAsStream(resource);
+             Statement statement = connection.createStatement()) {
+            if (inputStream == null) {
+                throw new IllegalStateException("Missing classpath resource " + resource);
+            }
+            String script = new String(inputStream.readAllBytes(), StandardCharsets.UTF_8)
+                    .replaceAll("(?im)^\\s*CREATE DATABASE[^;]*;", "");
+            statement.execute(script);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.dmdev.jdbc.starter.dao;
+
+import com.dmdev.jdbc.starter.DataGenerator;
+import com.dmdev.jdbc.starter.dto.FlightTicketCount;
+import com.dmdev.jdbc.starter.util.ConnectionPoolManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One-week {@link FlightDao#findByDepartureWindow} queries over the flights seeded by {@link DataGenerator}
+ * (departures spread over 2020-2022). Run it before and after {@code db/partitioning/flight_monthly_partitions.sql}
+ * to compare the flat and the partitioned layout.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FlightDaoBenchmark {
+
+    private static final LocalDateTime FIRST_DEPARTURE = LocalDateTime.of(2020, 1, 1, 0, 0);
+    private static final int DEPARTURE_DAYS = 3 * 365 - 7;
+
+    @Param({"1000000"})
+    private int tickets;
+
+    private final FlightDao flightDao = FlightDao.getInstance();
+
+    @Setup
+    public void setUp() {
+        DataGenerator.seed(tickets);
+    }
+
+    @TearDown
+    public void tearDown() {
+        ConnectionPoolManager.closePool();
+    }
+
+    @Benchmark
+    public long departureWindow() {
+        LocalDateTime from = weekStart();
+        return flightDao.findByDepartureWindow(from, from.plusWeeks(1), null).count();
+    }
+
+    @Benchmark
+    public long departureWindowFromAirport() {
+        LocalDateTime from = weekStart();
+        return flightDao.findByDepartureWindow(from, from.plusWeeks(1), "MNK").count();
+    }
+
+    @Benchmark
+    public long departureWindowWithTicketCounts() {
+        LocalDateTime from = weekStart();
+        return flightDao.findTicketCountsByDepartureWindow(from, from.plusWeeks(1), null)
+                .mapToLong(FlightTicketCount::tickets)
+                .sum();
+    }
+
+    private static LocalDateTime weekStart() {
+        return FIRST_DEPARTURE.plusDays(ThreadLocalRandom.current().nextInt(DEPARTURE_DAYS));
+    }
+}
@@ -0,0 +1,125 @@
+package com.dmdev.jdbc.starter.dao;
+
+import com.dmdev.jdbc.starter.DataGenerator;
+import com.dmdev.jdbc.starter.entity.Flight;
+import com.dmdev.jdbc.starter.entity.Ticket;
+import com.dmdev.jdbc.starter.util.ConnectionPoolManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * End-to-end {@link TicketDao} calls against the PostgreSQL configured in {@code application.properties}
+ * (override with {@code -jvmArgsAppend -Ddb.url=...}). The database is seeded by {@link DataGenerator}
+ * up to {@code tickets} rows; tickets written by {@link #save} go to a dedicated flight that is removed
+ * on tear down.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TicketDaoBenchmark {
+
+    private static final String SEAT_ALPHABET = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ";
+
+    @Param({"100000"})
+    private int tickets;
+
+    private final TicketDao ticketDao = TicketDao.getInstance();
+    private final FlightDao flightDao = FlightDao.getInstance();
+    private final AtomicInteger seats = new AtomicInteger();
+    private final Queue<Long> savedIds = new ConcurrentLinkedQueue<>();
+    private long minId;
+    private long maxId;
+    private Flight flight;
+
+    @Setup
+    public void setUp() throws SQLException {
+        DataGenerator.seed(tickets);
+        try (Connection connection = ConnectionPoolManager.get();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT min(id), max(id) FROM ticket")) {
+            resultSet.next();
+            minId = resultSet.getLong(1);
+            maxId = resultSet.getLong(2);
+        }
+        flight = flightDao.save(new Flight(null, "BENCH", LocalDateTime.now(), "MNK", LocalDateTime.now().plusHours(2),
+                "LDN", 1, "SCHEDULED"));
+    }
+
+    @TearDown
+    public void tearDown() {
+        ticketDao.deleteAllById(new ArrayList<>(savedIds));
+        flightDao.delete(flight.id());
+        ConnectionPoolManager.closePool();
+    }
+
+    @Benchmark
+    public Optional<Ticket> findById() {
+        return ticketDao.findById(ThreadLocalRandom.current().nextLong(minId, maxId + 1));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public List<Ticket> findAll() {
+        return ticketDao.findAll();
+    }
+
+    @Benchmark
+    public Ticket save() {
+        Ticket ticket = ticketDao.save(new Ticket(null, "BENCH1", "Benchmark Passenger", flight,
+                seatNo(seats.getAndIncrement()), BigDecimal.TEN));
+        savedIds.add(ticket.getId());
+        return ticket;
+    }
+
+    /**
+     * Same insert as {@link #save} through {@link TicketWriteBehind}; compare both with many threads
+     * ({@code -t 32}), where concurrent submits share one batch and one commit.
+     */
+    @Benchmark
+    public Long saveWriteBehind() {
+        Long id = TicketWriteBehind.getInstance().submit(new Ticket(null, "BENCH1", "Benchmark Passenger", flight,
+                seatNo(seats.getAndIncrement()), BigDecimal.TEN)).join();
+        savedIds.add(id);
+        return id;
+    }
+
+    private static String seatNo(int sequence) {
+        char[] seat = new char[4];
+        for (int i = seat.length - 1; i >= 0; i--) {
+            seat[i] = SEAT_ALPHABET.charAt(sequence % SEAT_ALPHABET.length());
+            sequence /= SEAT_ALPHABET.length();
+        }
+        return new String(seat);
+    }
+}
@@ -0,0 +1,55 @@
+package com.dmdev.jdbc.starter.dao;
+
+import com.dmdev.jdbc.starter.dto.TicketFilter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SQL lookup of {@link TicketDao#findALl} for the different filter shapes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TicketFilterSqlBenchmark {
+
+    @Param({"none", "seat", "passenger", "all"})
+    private String shape;
+
+    private final TicketDao ticketDao = TicketDao.getInstance();
+    private TicketFilter filter;
+
+    @Setup
+    public void setUp() {
+        filter = switch (shape) {
+            case "none" -> new TicketFilter(20, 0, null, null);
+            case "seat" -> new TicketFilter(20, 0, null, "A1");
+            case "passenger" -> new TicketFilter(20, 0, "Иван Иванов", null);
+            case "all" -> new TicketFilter(20, 40, "Иван Иванов", "A1", 100L)
+                    .withFlightId(1L)
+                    .withCost(BigDecimal.valueOf(100), BigDecimal.valueOf(300))
+                    .withDeparture(LocalDateTime.of(2020, 1, 1, 0, 0), LocalDateTime.of(2021, 1, 1, 0, 0));
+            default -> throw new IllegalArgumentException("Unknown shape " + shape);
+        };
+    }
+
+    @Benchmark
+    public String findAllSql() {
+        return ticketDao.findAllSql(filter);
+    }
+}
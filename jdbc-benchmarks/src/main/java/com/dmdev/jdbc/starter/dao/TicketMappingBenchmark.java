@@ -0,0 +1,135 @@
+package com.dmdev.jdbc.starter.dao;
+
+import com.dmdev.jdbc.starter.entity.Flight;
+import com.dmdev.jdbc.starter.entity.Ticket;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.sql.rowset.CachedRowSet;
+import javax.sql.rowset.RowSetMetaDataImpl;
+import javax.sql.rowset.RowSetProvider;
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Row mapping cost per row of {@link TicketMapper} against by-label lookups, over an in-memory result set
+ * shaped like {@code FIND_ALL_SQL}, so driver I/O does not hide it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TicketMappingBenchmark {
+
+    private static final int ROWS = 1000;
+    private static final String[] COLUMNS = {"id", "passenger_no", "passenger_name", "flight_id", "seat_no", "cost",
+            "f_id", "f_status", "f_aircraft_id", "f_arrival_airport_code", "f_arrival_date", "f_departure_airport_code",
+            "f_departure_date", "f_flight_no"};
+    private static final int[] TYPES = {Types.BIGINT, Types.VARCHAR, Types.VARCHAR, Types.BIGINT, Types.VARCHAR,
+            Types.NUMERIC, Types.BIGINT, Types.VARCHAR, Types.INTEGER, Types.CHAR, Types.TIMESTAMP, Types.CHAR,
+            Types.TIMESTAMP, Types.VARCHAR};
+
+    @Param({"1", "50"})
+    private int rowsPerFlight;
+
+    private CachedRowSet resultSet;
+
+    @Setup
+    public void setUp() throws SQLException {
+        RowSetMetaDataImpl metaData = new RowSetMetaDataImpl();
+        metaData.setColumnCount(COLUMNS.length);
+        for (int i = 0; i < COLUMNS.length; i++) {
+            metaData.setColumnName(i + 1, COLUMNS[i]);
+            metaData.setColumnLabel(i + 1, COLUMNS[i]);
+            metaData.setColumnType(i + 1, TYPES[i]);
+        }
+
+        resultSet = RowSetProvider.newFactory().createCachedRowSet();
+        resultSet.setMetaData(metaData);
+        Timestamp departure = Timestamp.valueOf(LocalDateTime.of(2020, 6, 14, 14, 30));
+        Timestamp arrival = Timestamp.valueOf(LocalDateTime.of(2020, 6, 14, 18, 7));
+        for (int i = 0; i < ROWS; i++) {
+            resultSet.moveToInsertRow();
+            resultSet.updateLong(1, i + 1);
+            resultSet.updateString(2, "PN" + i);
+            resultSet.updateString(3, "Passenger " + i);
+            resultSet.updateLong(4, i / rowsPerFlight + 1);
+            resultSet.updateString(5, "A" + i % 10);
+            resultSet.updateBigDecimal(6, BigDecimal.valueOf(10_000 + i, 2));
+            resultSet.updateLong(7, i / rowsPerFlight + 1);
+            resultSet.updateString(8, "ARRIVED");
+            resultSet.updateInt(9, 1);
+            resultSet.updateString(10, "LDN");
+            resultSet.updateTimestamp(11, arrival);
+            resultSet.updateString(12, "MNK");
+            resultSet.updateTimestamp(13, departure);
+            resultSet.updateString(14, "MN3002");
+            resultSet.insertRow();
+        }
+        resultSet.moveToCurrentRow();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void byIndex(Blackhole blackhole) throws SQLException {
+        resultSet.beforeFirst();
+        RowMapper<Ticket> ticketMapper = TicketMapper.WITH_FLIGHT.bind(resultSet);
+        while (resultSet.next()) {
+            blackhole.consume(ticketMapper.map(resultSet));
+        }
+    }
+
+    /**
+     * The previous by-label mapping, kept as the baseline.
+     */
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void byLabel(Blackhole blackhole) throws SQLException {
+        Map<Long, Flight> flights = new HashMap<>();
+        resultSet.beforeFirst();
+        while (resultSet.next()) {
+            Long flightId = resultSet.getLong("flight_id");
+            Flight flight = flights.get(flightId);
+            if (flight == null) {
+                flight = new Flight(
+                        flightId,
+                        resultSet.getString("f_flight_no"),
+                        resultSet.getTimestamp("f_departure_date").toLocalDateTime(),
+                        resultSet.getString("f_departure_airport_code"),
+                        resultSet.getTimestamp("f_arrival_date").toLocalDateTime(),
+                        resultSet.getString("f_arrival_airport_code"),
+                        resultSet.getInt("f_aircraft_id"),
+                        resultSet.getString("f_status")
+                );
+                flights.put(flightId, flight);
+            }
+            blackhole.consume(new Ticket(
+                    resultSet.getLong("id"),
+                    resultSet.getString("passenger_no"),
+                    resultSet.getString("passenger_name"),
+                    flight,
+                    resultSet.getString("seat_no"),
+                    resultSet.getBigDecimal("cost")
+            ));
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.dmdev.jdbc.starter.dao;
+
+import com.dmdev.jdbc.starter.DataGenerator;
+import com.dmdev.jdbc.starter.dto.TextMatch;
+import com.dmdev.jdbc.starter.dto.TicketFilter;
+import com.dmdev.jdbc.starter.entity.Ticket;
+import com.dmdev.jdbc.starter.util.ConnectionPoolManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Passenger and seat search per {@link TextMatch} mode, with and without the indexes of
+ * {@code db/migration/V1__ticket_search_indexes.sql}, against {@code tickets} seeded rows.
+ * Set up prints the plan of every query, so the change from a sequential scan to an index scan
+ * shows next to the latency. {@code seat} with {@code -p match=CONTAINS -p indexed=false} is what
+ * the former {@code seat_no LIKE '%x%'} filter cost.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TicketSearchBenchmark {
+
+    private static final String INDEXES = "db/migration/V1__ticket_search_indexes.sql";
+    private static final String DROP_INDEXES_SQL = """
+            DROP INDEX IF EXISTS ticket_passenger_name_c_idx;
+            DROP INDEX IF EXISTS ticket_seat_no_c_idx;
+            DROP INDEX IF EXISTS ticket_passenger_name_trgm_idx;
+            DROP INDEX IF EXISTS ticket_seat_no_trgm_idx;
+            """;
+
+    @Param({"100000", "1000000"})
+    private int tickets;
+
+    @Param({"false", "true"})
+    private boolean indexed;
+
+    @Param({"EXACT", "PREFIX", "CONTAINS", "FUZZY"})
+    private TextMatch match;
+
+    private final TicketDao ticketDao = TicketDao.getInstance();
+    private TicketFilter passengerFilter;
+    private TicketFilter seatFilter;
+
+    @Setup
+    public void setUp() throws SQLException {
+        DataGenerator.seed(tickets);
+        try (Connection connection = ConnectionPoolManager.get()) {
+            if (indexed) {
+                DataGenerator.runScript(connection, INDEXES);
+            } else {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute(DROP_INDEXES_SQL);
+                }
+            }
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("ANALYZE ticket");
+            }
+        }
+
+        passengerFilter = new TicketFilter(20, 0, null, null).withPassengerName(passengerTerm(), match);
+        seatFilter = new TicketFilter(20, 0, null, null).withSeatNo(match == TextMatch.PREFIX ? "12" : "12A", match);
+        print("passenger", passengerFilter);
+        print("seat", seatFilter);
+    }
+
+    @TearDown
+    public void tearDown() {
+        ConnectionPoolManager.closePool();
+    }
+
+    @Benchmark
+    public List<Ticket> passenger() {
+        return ticketDao.findALl(passengerFilter);
+    }
+
+    @Benchmark
+    public List<Ticket> seat() {
+        return ticketDao.findALl(seatFilter);
+    }
+
+    private String passengerTerm() {
+        return switch (match) {
+            case EXACT -> "Юлия Сарычев";
+            case PREFIX -> "Юлия Са";
+            case CONTAINS -> "Сарыч";
+            case FUZZY -> "Юля Сарычов";
+        };
+    }
+
+    private void print(String name, TicketFilter filter) {
+        System.out.println(name + " " + match + (indexed ? " with" : " without") + " search indexes:");
+        ticketDao.explainFindAll(filter).forEach(line -> System.out.println("    " + line));
+    }
+}
@@ -0,0 +1,95 @@
+package com.dmdev.jdbc.starter.seat;
+
+import com.dmdev.jdbc.starter.DataGenerator;
+import com.dmdev.jdbc.starter.util.ConnectionPoolManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Free seats of a random flight from {@link SeatAvailability} against the {@code seat}/{@code ticket}
+ * query it replaces. The first pass over the flights loads their maps, so compare steady-state numbers.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SeatAvailabilityBenchmark {
+
+    private static final String FREE_SEATS_SQL = """
+            SELECT s.seat_no
+            FROM flight f
+            JOIN seat s ON s.aircraft_id = f.aircraft_id
+            WHERE f.id = ?
+              AND NOT EXISTS (SELECT 1 FROM ticket t WHERE t.flight_id = f.id AND t.seat_no = s.seat_no)
+            ORDER BY s.seat_no
+            """;
+
+    @Param({"100000"})
+    private int tickets;
+
+    private final SeatAvailability seatAvailability = SeatAvailability.getInstance();
+    private long minFlightId;
+    private long maxFlightId;
+
+    @Setup
+    public void setUp() throws SQLException {
+        DataGenerator.seed(tickets);
+        try (Connection connection = ConnectionPoolManager.get();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT min(id), max(id) FROM flight")) {
+            resultSet.next();
+            minFlightId = resultSet.getLong(1);
+            maxFlightId = resultSet.getLong(2);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        ConnectionPoolManager.closePool();
+    }
+
+    @Benchmark
+    public List<String> freeSeatsFromMemory() {
+        return seatAvailability.freeSeats(randomFlightId());
+    }
+
+    @Benchmark
+    public List<String> freeSeatsFromDatabase() throws SQLException {
+        try (Connection connection = ConnectionPoolManager.getForRead();
+             PreparedStatement preparedStatement = connection.prepareStatement(FREE_SEATS_SQL)) {
+            preparedStatement.setLong(1, randomFlightId());
+            ResultSet resultSet = preparedStatement.executeQuery();
+            List<String> seatNos = new ArrayList<>();
+            while (resultSet.next()) {
+                seatNos.add(resultSet.getString(1));
+            }
+            return seatNos;
+        }
+    }
+
+    private long randomFlightId() {
+        return ThreadLocalRandom.current().nextLong(minFlightId, maxFlightId + 1);
+    }
+}
@@ -0,0 +1,115 @@
+package com.dmdev.jdbc.starter.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Acquire/release cost of the pool. {@code proxy} is the old queue of reflective proxies,
+ * {@code pool} is {@link ConnectionPool} over stub connections and {@code manager} is
+ * {@link ConnectionPoolManager} against the database from {@code application.properties}
+ * (run it with {@code -p source=manager}).
+ * <p>
+ * {@link #main} sweeps 1 to 64 threads and writes one JSON result file per thread count.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConnectionPoolBenchmark {
+
+    private static final int POOL_SIZE = 10;
+    private static final int[] THREADS = {1, 2, 4, 8, 16, 32, 64};
+    private static final String SQL = "SELECT id FROM ticket WHERE id = ?";
+
+    @Param({"proxy", "pool"})
+    private String source;
+
+    private BlockingQueue<Connection> queue;
+    private ConnectionPool pool;
+
+    @Setup
+    public void setUp() throws SQLException {
+        switch (source) {
+            case "proxy" -> queue = StubConnections.proxyQueue(POOL_SIZE);
+            case "pool" -> pool = new ConnectionPool("benchmark", new ConnectionPoolConfig(POOL_SIZE, POOL_SIZE,
+                    Duration.ofSeconds(30), Duration.ofMinutes(10), false, Duration.ofMinutes(10), 5, Duration.ZERO, 64),
+                    StubConnections::connection);
+            case "manager" -> ConnectionPoolManager.get().close();
+            default -> throw new IllegalArgumentException("Unknown source " + source);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
+    @Benchmark
+    public void acquireRelease(Blackhole blackhole) throws Exception {
+        try (Connection connection = get()) {
+            blackhole.consume(connection);
+        }
+    }
+
+    @Benchmark
+    public long prepareAndQuery() throws Exception {
+        long sum = 0;
+        try (Connection connection = get();
+             PreparedStatement preparedStatement = connection.prepareStatement(SQL)) {
+            preparedStatement.setLong(1, 1L);
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                while (resultSet.next()) {
+                    sum += resultSet.getLong("id");
+                }
+            }
+        }
+        return sum;
+    }
+
+    private Connection get() throws InterruptedException, SQLException {
+        return switch (source) {
+            case "proxy" -> queue.take();
+            case "pool" -> pool.get();
+            default -> ConnectionPoolManager.get();
+        };
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        for (int threads : THREADS) {
+            new Runner(new OptionsBuilder()
+                    .include(ConnectionPoolBenchmark.class.getName())
+                    .threads(threads)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result("target/jmh-pool-" + threads + "-threads.json")
+                    .build())
+                    .run();
+        }
+    }
+}
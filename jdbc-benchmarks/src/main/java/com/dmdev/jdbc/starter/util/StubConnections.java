@@ -0,0 +1,69 @@
+package com.dmdev.jdbc.starter.util;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Driver-free connections for measuring pool overhead in isolation. Every call on them is a no-op,
+ * so whatever shows up in a profile belongs to the pool and its wrappers.
+ */
+final class StubConnections {
+
+    private StubConnections() {
+    }
+
+    static Connection connection() {
+        return (Connection) Proxy.newProxyInstance(StubConnections.class.getClassLoader(),
+                new Class[]{Connection.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "isValid" -> true;
+                    case "isClosed", "isReadOnly" -> false;
+                    case "getAutoCommit" -> true;
+                    case "getTransactionIsolation" -> Connection.TRANSACTION_READ_COMMITTED;
+                    case "prepareStatement" -> statement();
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> null;
+                });
+    }
+
+    /**
+     * The pre-{@link ConnectionPool} design: a bounded queue of reflective proxies that put
+     * themselves back on close.
+     */
+    static BlockingQueue<Connection> proxyQueue(int size) {
+        BlockingQueue<Connection> queue = new ArrayBlockingQueue<>(size);
+        for (int i = 0; i < size; i++) {
+            Connection connection = connection();
+            queue.add((Connection) Proxy.newProxyInstance(StubConnections.class.getClassLoader(),
+                    new Class[]{Connection.class},
+                    (proxy, method, args) -> method.getName().equals("close")
+                            ? queue.add((Connection) proxy)
+                            : method.invoke(connection, args)));
+        }
+        return queue;
+    }
+
+    private static PreparedStatement statement() {
+        ResultSet resultSet = (ResultSet) Proxy.newProxyInstance(StubConnections.class.getClassLoader(),
+                new Class[]{ResultSet.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "next", "isClosed" -> false;
+                    case "getLong" -> 0L;
+                    default -> null;
+                });
+        return (PreparedStatement) Proxy.newProxyInstance(StubConnections.class.getClassLoader(),
+                new Class[]{PreparedStatement.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "executeQuery" -> resultSet;
+                    case "isClosed" -> false;
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> null;
+                });
+    }
+}
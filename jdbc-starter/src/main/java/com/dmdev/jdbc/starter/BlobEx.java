@@ -1,9 +1,9 @@
 package com.dmdev.jdbc.starter;
 
-import com.dmdev.jdbc.starter.util.ConnectionManager;
+import com.dmdev.jdbc.starter.dao.AircraftImageDao;
 
 import java.io.IOException;
-import java.nio.file.Files;
+import java.nio.channels.FileChannel;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
 import java.sql.*;
@@ -15,42 +15,17 @@ public class BlobEx {
 //        saveImage();
     }
 
-    private static void getImage() throws SQLException, IOException {
-        String sql = """
-                   SELECT image 
-                   FROM aircraft
-                   WHERE id = ?
-                   """;
-
-        try (Connection connection = ConnectionManager.open();
-             PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
-
-            preparedStatement.setInt(1, 1);
-            ResultSet resultSet = preparedStatement.executeQuery();
-            if (resultSet.next()) {
-                byte[] image = resultSet.getBytes("image");
-                Files.write(Path.of("C:\\Java\\jdbc-course\\jdbc-starter\\src\\main\\resources\\", "boeingFromDb.jpg"),
-                        image, StandardOpenOption.CREATE);
-            }
+    private static void getImage() throws IOException {
+        try (FileChannel image = FileChannel.open(
+                Path.of("C:\\Java\\jdbc-course\\jdbc-starter\\src\\main\\resources\\", "boeingFromDb.jpg"),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            System.out.println(AircraftImageDao.getInstance().download(1, image));
         }
     }
 
-    private static void saveImage() throws SQLException, IOException {
-
-        String sql = """
-                   UPDATE aircraft 
-                   SET image = ?
-                   WHERE id = 1
-                   """;
-
-        try (Connection connection = ConnectionManager.open();
-             PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
-
-
-            preparedStatement.setBytes(1, Files.readAllBytes(
-                    Path.of("C:\\Java\\jdbc-course\\jdbc-starter\\src\\main\\resources\\", "boeing.jpg")));
-            preparedStatement.executeUpdate();
-        }
+    private static void saveImage() {
+        AircraftImageDao.getInstance().upload(1,
+                Path.of("C:\\Java\\jdbc-course\\jdbc-starter\\src\\main\\resources\\", "boeing.jpg"));
     }
 
 /*
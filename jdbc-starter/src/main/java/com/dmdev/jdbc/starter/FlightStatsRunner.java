@@ -0,0 +1,25 @@
+package com.dmdev.jdbc.starter;
+
+import com.dmdev.jdbc.starter.dao.FlightStatsDao;
+import com.dmdev.jdbc.starter.util.ConnectionPoolManager;
+
+/**
+ * {@code FlightStatsRunner [verify|rebuild]}: lists the flights whose {@code flight_stats} row drifted
+ * from their tickets, or repairs them.
+ */
+public class FlightStatsRunner {
+
+    public static void main(String[] args) {
+        String command = args.length > 0 ? args[0] : "verify";
+        try {
+            FlightStatsDao flightStatsDao = FlightStatsDao.getInstance();
+            switch (command) {
+                case "verify" -> flightStatsDao.verify().forEach(System.out::println);
+                case "rebuild" -> System.out.println("Rebuilt " + flightStatsDao.rebuild() + " flights");
+                default -> throw new IllegalArgumentException("Unknown command " + command + ", expected verify or rebuild");
+            }
+        } finally {
+            ConnectionPoolManager.closePool();
+        }
+    }
+}
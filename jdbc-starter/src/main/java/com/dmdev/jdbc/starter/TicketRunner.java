@@ -1,12 +1,32 @@
 package com.dmdev.jdbc.starter;
 
+import com.dmdev.jdbc.starter.bulk.BulkCopyDao;
+import com.dmdev.jdbc.starter.dao.AsyncDao;
+import com.dmdev.jdbc.starter.dao.FlightDao;
+import com.dmdev.jdbc.starter.dao.QueryPlanCheck;
 import com.dmdev.jdbc.starter.dao.TicketDao;
+import com.dmdev.jdbc.starter.dao.TicketWriteBehind;
+import com.dmdev.jdbc.starter.dto.FlightTicketCount;
+import com.dmdev.jdbc.starter.dto.Page;
+import com.dmdev.jdbc.starter.dto.TextMatch;
 import com.dmdev.jdbc.starter.dto.TicketFilter;
+import com.dmdev.jdbc.starter.entity.Flight;
 import com.dmdev.jdbc.starter.entity.Ticket;
+import com.dmdev.jdbc.starter.seat.SeatAvailability;
+import com.dmdev.jdbc.starter.util.ConnectionPoolManager;
+import com.dmdev.jdbc.starter.util.SchemaMigrator;
+import com.dmdev.jdbc.starter.util.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
 public class TicketRunner {
 
@@ -19,6 +39,77 @@ public class TicketRunner {
         TicketFilter ticketFilter = new TicketFilter(3, 2, null, "A1");
         List<Ticket> tickets = TicketDao.getInstance().findALl(ticketFilter);
         System.out.println(tickets);
+
+        TicketFilter cheapOnFlight = new TicketFilter(10, 0, null, null)
+                .withFlightId(1L)
+                .withCost(BigDecimal.valueOf(150), BigDecimal.valueOf(200));
+        System.out.println(TicketDao.getInstance().findALl(cheapOnFlight));
+
+        System.out.println(TicketDao.getInstance().findByPassengerName("Ivan", TextMatch.PREFIX, 10));
+        System.out.println(TicketDao.getInstance().findByPassengerName("ivanov", TextMatch.CONTAINS, 10));
+    }
+
+    private static void schemaTest() {
+        System.out.println(SchemaMigrator.migrate());
+        QueryPlanCheck.run().forEach(System.out::println);
+    }
+
+    private static void departureWindowTest() {
+        LocalDateTime from = LocalDate.of(2020, 1, 1).atStartOfDay();
+        try (Stream<FlightTicketCount> flights = FlightDao.getInstance()
+                .findTicketCountsByDepartureWindow(from, from.plusWeeks(1), "MNK")) {
+            flights.forEach(System.out::println);
+        }
+    }
+
+    private static void seatTest() {
+        SeatAvailability seats = SeatAvailability.getInstance();
+        Flight flight = FlightDao.getInstance().findById(9L).orElseThrow();
+        System.out.println(seats.freeSeats(flight.id()));
+        String seatNo = seats.freeSeats(flight.id()).get(0);
+        System.out.println(seats.book(new Ticket(null, "SEAT1", "Seat Test", flight, seatNo, BigDecimal.TEN)));
+        System.out.println(seats.isFree(flight.id(), seatNo));
+    }
+
+    private static void pageTest() {
+        TicketFilter ticketFilter = TicketFilter.firstPage(3, null, null);
+        Page<Ticket> page;
+        do {
+            page = TicketDao.getInstance().findPage(ticketFilter);
+            System.out.println(page.content());
+            ticketFilter = ticketFilter.next(page);
+        } while (page.hasNext());
+    }
+
+    private static void streamTest() {
+        try (Stream<Ticket> tickets = TicketDao.getInstance().streamAll(500)) {
+            System.out.println(tickets.map(Ticket::getCost).reduce(BigDecimal.ZERO, BigDecimal::add));
+        }
+    }
+
+    private static void copyTest() {
+        BulkCopyDao bulkCopyDao = BulkCopyDao.getInstance();
+        System.out.println(bulkCopyDao.exportFlights(Path.of("flights.copy")));
+        System.out.println(bulkCopyDao.exportTickets(Path.of("tickets.copy")));
+    }
+
+    private static void asyncTest() {
+        AsyncDao<Long, Ticket, TicketDao> tickets = AsyncDao.tickets();
+        List<CompletableFuture<Optional<Ticket>>> futures = LongStream.rangeClosed(1, 50)
+                .mapToObj(tickets::findById)
+                .toList();
+        futures.forEach(future -> System.out.println(future.join()));
+    }
+
+    private static void writeBehindTest() {
+        FlightDao flightDao = FlightDao.getInstance();
+        TicketWriteBehind writeBehind = TicketWriteBehind.getInstance();
+        Flight flight = flightDao.findById(9L).orElseThrow();
+        List<CompletableFuture<Long>> ids = LongStream.rangeClosed(1, 100)
+                .mapToObj(i -> writeBehind.submit(new Ticket(null, "WB" + i, "Write Behind", flight, "W" + i, BigDecimal.TEN)))
+                .toList();
+        ConnectionPoolManager.closePool();
+        ids.forEach(id -> System.out.println(id.join()));
     }
 
     private static void updateTest() {
@@ -35,6 +126,26 @@ public class TicketRunner {
         System.out.println(maybeTicket);
     }
 
+    private static void transactionTest() {
+        TicketDao ticketDao = TicketDao.getInstance();
+        Optional<Ticket> moved = TransactionTemplate.required().execute(connection -> {
+            Optional<Ticket> maybeTicket = ticketDao.findById(2L);
+            maybeTicket.ifPresent(ticket -> {
+                ticket.setSeatNo("A2");
+                ticket.setCost(ticket.getCost().add(BigDecimal.TEN));
+                ticketDao.update(ticket);
+            });
+            return maybeTicket;
+        });
+        System.out.println(moved);
+
+        List<Ticket> tickets = TransactionTemplate.required()
+                .readOnly()
+                .withIsolation(Connection.TRANSACTION_REPEATABLE_READ)
+                .execute(connection -> ticketDao.findALl(new TicketFilter(10, 0, null, null).withFlightId(1L)));
+        System.out.println(tickets);
+    }
+
     private static void saveTest() {
         TicketDao ticketDao = TicketDao.getInstance();
         Ticket ticket = new Ticket();
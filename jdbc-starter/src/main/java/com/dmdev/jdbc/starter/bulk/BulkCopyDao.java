@@ -0,0 +1,164 @@
+package com.dmdev.jdbc.starter.bulk;
+
+import com.dmdev.jdbc.starter.dto.BulkResult;
+import com.dmdev.jdbc.starter.entity.Flight;
+import com.dmdev.jdbc.starter.entity.Ticket;
+import com.dmdev.jdbc.starter.exception.DaoException;
+import com.dmdev.jdbc.starter.util.ConnectionPoolManager;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.postgresql.copy.PGCopyOutputStream;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+public class BulkCopyDao {
+
+    private static final BulkCopyDao INSTANCE = new BulkCopyDao();
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final String COPY_IN_TICKETS_SQL = """
+            COPY ticket (passenger_no, passenger_name, flight_id, seat_no, cost) FROM STDIN
+            """;
+    private static final String COPY_IN_FLIGHTS_SQL = """
+            COPY flight (flight_no, departure_date, departure_airport_code, arrival_date, arrival_airport_code, aircraft_id, status) FROM STDIN
+            """;
+    private static final String IMPORT_TICKETS_SQL = """
+            COPY ticket (id, passenger_no, passenger_name, flight_id, seat_no, cost) FROM STDIN
+            """;
+    private static final String IMPORT_FLIGHTS_SQL = """
+            COPY flight (id, flight_no, departure_date, departure_airport_code, arrival_date, arrival_airport_code, aircraft_id, status) FROM STDIN
+            """;
+    private static final String EXPORT_TICKETS_SQL = """
+            COPY (SELECT id, passenger_no, passenger_name, flight_id, seat_no, cost FROM ticket ORDER BY id) TO STDOUT
+            """;
+    private static final String EXPORT_FLIGHTS_SQL = """
+            COPY (SELECT id, flight_no, departure_date, departure_airport_code, arrival_date, arrival_airport_code, aircraft_id, status FROM flight ORDER BY id) TO STDOUT
+            """;
+    private static final String SYNC_SEQUENCE_SQL = """
+            SELECT setval(pg_get_serial_sequence('%s', 'id'), coalesce(max(id), 1), max(id) IS NOT NULL) FROM %s
+            """;
+
+    private BulkCopyDao() {
+    }
+
+    public static BulkCopyDao getInstance() {
+        return INSTANCE;
+    }
+
+    public BulkResult copyInTickets(Stream<Ticket> tickets) {
+        return copyIn(COPY_IN_TICKETS_SQL, tickets.iterator(), (row, ticket) -> row
+                .write(ticket.getPassengerNo())
+                .write(ticket.getPassengerName())
+                .write(ticket.getFlight().id())
+                .write(ticket.getSeatNo())
+                .write(ticket.getCost()));
+    }
+
+    public BulkResult copyInFlights(Stream<Flight> flights) {
+        return copyIn(COPY_IN_FLIGHTS_SQL, flights.iterator(), (row, flight) -> row
+                .write(flight.flightNo())
+                .write(flight.departureDate())
+                .write(flight.departureAirportCode())
+                .write(flight.arrivalDate())
+                .write(flight.arrivalAirportCode())
+                .write(flight.aircraftId())
+                .write(flight.status()));
+    }
+
+    public BulkResult exportTickets(Path file) {
+        return copyOut(EXPORT_TICKETS_SQL, file);
+    }
+
+    public BulkResult exportFlights(Path file) {
+        return copyOut(EXPORT_FLIGHTS_SQL, file);
+    }
+
+    public BulkResult importTickets(Path file) {
+        return copyInFile(IMPORT_TICKETS_SQL, "ticket", file);
+    }
+
+    public BulkResult importFlights(Path file) {
+        return copyInFile(IMPORT_FLIGHTS_SQL, "flight", file);
+    }
+
+    private <T> BulkResult copyIn(String sql, Iterator<T> rows, RowEncoder<T> encoder) {
+        long startNanos = System.nanoTime();
+        try (Connection connection = ConnectionPoolManager.get()) {
+            PGCopyOutputStream copyStream = new PGCopyOutputStream(unwrap(connection), sql, BUFFER_SIZE);
+            try {
+                Writer writer = new BufferedWriter(new OutputStreamWriter(copyStream, StandardCharsets.UTF_8), BUFFER_SIZE);
+                CopyTextWriter row = new CopyTextWriter(writer);
+                while (rows.hasNext()) {
+                    encoder.encode(row, rows.next());
+                    row.endRow();
+                }
+                writer.flush();
+                long handledRows = copyStream.endCopy();
+                return new BulkResult(handledRows, Duration.ofNanos(System.nanoTime() - startNanos));
+            } catch (IOException | SQLException | RuntimeException e) {
+                if (copyStream.isActive()) {
+                    copyStream.cancelCopy();
+                }
+                throw e;
+            }
+        } catch (SQLException | IOException e) {
+            throw new DaoException(e);
+        }
+    }
+
+    private BulkResult copyInFile(String sql, String table, Path file) {
+        long startNanos = System.nanoTime();
+        try (Connection connection = ConnectionPoolManager.get();
+             InputStream inputStream = Channels.newInputStream(FileChannel.open(file, StandardOpenOption.READ))) {
+
+            CopyManager copyManager = unwrap(connection).getCopyAPI();
+            long rows = copyManager.copyIn(sql, inputStream, BUFFER_SIZE);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(SYNC_SEQUENCE_SQL.formatted(table, table));
+            }
+            return new BulkResult(rows, Duration.ofNanos(System.nanoTime() - startNanos));
+        } catch (SQLException | IOException e) {
+            throw new DaoException(e);
+        }
+    }
+
+    private BulkResult copyOut(String sql, Path file) {
+        long startNanos = System.nanoTime();
+        try (Connection connection = ConnectionPoolManager.get();
+             OutputStream outputStream = new BufferedOutputStream(Channels.newOutputStream(FileChannel.open(file,
+                     StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)), BUFFER_SIZE)) {
+
+            CopyManager copyManager = unwrap(connection).getCopyAPI();
+            long rows = copyManager.copyOut(sql, outputStream);
+            return new BulkResult(rows, Duration.ofNanos(System.nanoTime() - startNanos));
+        } catch (SQLException | IOException e) {
+            throw new DaoException(e);
+        }
+    }
+
+    private static PGConnection unwrap(Connection connection) throws SQLException {
+        return connection.unwrap(PGConnection.class);
+    }
+
+    @FunctionalInterface
+    private interface RowEncoder<T> {
+        void encode(CopyTextWriter row, T value) throws IOException;
+    }
+}
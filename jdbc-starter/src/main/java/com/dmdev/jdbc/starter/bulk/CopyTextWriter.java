@@ -0,0 +1,73 @@
+package com.dmdev.jdbc.starter.bulk;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Writes rows in the PostgreSQL COPY text format: tab separated columns, \N for NULL and
+ * backslash escapes for the characters that have a meaning in the format.
+ */
+final class CopyTextWriter {
+
+    private final Writer writer;
+    private boolean firstColumn = true;
+
+    CopyTextWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    CopyTextWriter write(String value) throws IOException {
+        separator();
+        if (value == null) {
+            writer.write("\\N");
+            return this;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\' -> writer.write("\\\\");
+                case '\t' -> writer.write("\\t");
+                case '\n' -> writer.write("\\n");
+                case '\r' -> writer.write("\\r");
+                default -> writer.write(c);
+            }
+        }
+        return this;
+    }
+
+    CopyTextWriter write(Long value) throws IOException {
+        return writeRaw(value == null ? null : value.toString());
+    }
+
+    CopyTextWriter write(Integer value) throws IOException {
+        return writeRaw(value == null ? null : value.toString());
+    }
+
+    CopyTextWriter write(BigDecimal value) throws IOException {
+        return writeRaw(value == null ? null : value.toPlainString());
+    }
+
+    CopyTextWriter write(LocalDateTime value) throws IOException {
+        return writeRaw(value == null ? null : value.toString());
+    }
+
+    void endRow() throws IOException {
+        writer.write('\n');
+        firstColumn = true;
+    }
+
+    private CopyTextWriter writeRaw(String value) throws IOException {
+        separator();
+        writer.write(value == null ? "\\N" : value);
+        return this;
+    }
+
+    private void separator() throws IOException {
+        if (!firstColumn) {
+            writer.write('\t');
+        }
+        firstColumn = false;
+    }
+}
@@ -0,0 +1,142 @@
+package com.dmdev.jdbc.starter.cache;
+
+import com.dmdev.jdbc.starter.metrics.Counter;
+import com.dmdev.jdbc.starter.metrics.MetricsRegistry;
+import com.dmdev.jdbc.starter.metrics.Timer;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Bounded LRU cache with a time-to-live that loads missing values through the given loader.
+ * Concurrent misses for the same key share a single load, and a load that overlaps an
+ * invalidation of its key is returned to its callers but not cached.
+ */
+public final class ReadThroughCache<K, V> {
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final Function<K, V> loader;
+    private final Map<K, CacheEntry<V>> entries;
+    private final ConcurrentHashMap<K, CompletableFuture<V>> loads = new ConcurrentHashMap<>();
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+    private final Timer loadTimer;
+
+    public ReadThroughCache(String name, int maxSize, Duration ttl, Function<K, V> loader) {
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        this.loader = loader;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, CacheEntry<V>> eldest) {
+                if (size() > ReadThroughCache.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+
+        MetricsRegistry registry = MetricsRegistry.getInstance();
+        this.hits = registry.counter("cache." + name + ".hits");
+        this.misses = registry.counter("cache." + name + ".misses");
+        this.evictions = registry.counter("cache." + name + ".evictions");
+        this.loadTimer = registry.timer("cache." + name + ".load");
+        registry.gauge("cache." + name + ".size", this::size);
+    }
+
+    public V get(K key) {
+        CacheEntry<V> entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+        }
+        if (entry != null && System.nanoTime() - entry.loadedNanos() < ttlNanos) {
+            hits.increment();
+            return entry.value();
+        }
+        misses.increment();
+
+        CompletableFuture<V> load = new CompletableFuture<>();
+        CompletableFuture<V> inFlight = loads.putIfAbsent(key, load);
+        if (inFlight != null) {
+            return await(inFlight);
+        }
+
+        try {
+            long startNanos = System.nanoTime();
+            V value = loader.apply(key);
+            loadTimer.recordSince(startNanos);
+            // under the lock invalidate() holds, so it either drops the load first or the entry after
+            synchronized (entries) {
+                if (value != null && loads.get(key) == load) {
+                    entries.put(key, new CacheEntry<>(value, startNanos));
+                }
+            }
+            load.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            loads.remove(key, load);
+        }
+    }
+
+    /**
+     * The cached value, or {@code null} when it is missing or expired; never loads.
+     */
+    public V getIfPresent(K key) {
+        CacheEntry<V> entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+        }
+        return entry != null && System.nanoTime() - entry.loadedNanos() < ttlNanos ? entry.value() : null;
+    }
+
+    public void invalidate(K key) {
+        synchronized (entries) {
+            loads.remove(key);
+            entries.remove(key);
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (entries) {
+            loads.clear();
+            entries.clear();
+        }
+    }
+
+    public long size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public double hitRatio() {
+        long hitCount = hits.count();
+        long total = hitCount + misses.count();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    private V await(CompletableFuture<V> load) {
+        try {
+            return load.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+
+    private record CacheEntry<V>(V value, long loadedNanos) {
+    }
+}
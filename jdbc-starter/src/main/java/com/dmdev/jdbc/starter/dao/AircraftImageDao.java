@@ -0,0 +1,242 @@
+package com.dmdev.jdbc.starter.dao;
+
+import com.dmdev.jdbc.starter.exception.DaoException;
+import com.dmdev.jdbc.starter.metrics.QueryMetrics;
+import com.dmdev.jdbc.starter.util.ConnectionPoolManager;
+import com.dmdev.jdbc.starter.util.PropertiesUtil;
+import com.dmdev.jdbc.starter.util.TransactionTemplate;
+import org.postgresql.PGConnection;
+import org.postgresql.largeobject.LargeObject;
+import org.postgresql.largeobject.LargeObjectManager;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.OptionalLong;
+
+/**
+ * Aircraft images copied in fixed-size chunks, so heap use does not grow with the image size.
+ * Images below {@code dao.aircraft.image.large.object.threshold} bytes go to {@code aircraft.image}
+ * (bytea), larger ones to a PostgreSQL large object referenced by {@code aircraft.image_oid}.
+ * The driver receives a bytea value as a whole before it can be streamed out, while a large object
+ * is read from the server chunk by chunk, so very big images should use the latter.
+ * Both columns come with migration V5.
+ */
+public class AircraftImageDao {
+
+    private static final AircraftImageDao INSTANCE = new AircraftImageDao();
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final long NO_LARGE_OBJECT = 0;
+    private static final long LARGE_OBJECT_THRESHOLD =
+            PropertiesUtil.getLong("dao.aircraft.image.large.object.threshold", 8L * 1024 * 1024);
+
+    private static final String FIND_SQL = """
+            SELECT image_oid, image
+            FROM aircraft
+            WHERE id = ?
+            """;
+
+    private static final String LOCK_SQL = """
+            SELECT image_oid
+            FROM aircraft
+            WHERE id = ?
+            FOR UPDATE
+            """;
+
+    private static final String UPDATE_SQL = """
+            UPDATE aircraft
+            SET image = ?,
+                image_oid = ?
+            WHERE id = ?
+            """;
+
+    private static final QueryMetrics UPLOAD_METRICS = QueryMetrics.of(AircraftImageDao.class, "upload");
+    private static final QueryMetrics DOWNLOAD_METRICS = QueryMetrics.of(AircraftImageDao.class, "download");
+    private static final QueryMetrics DELETE_METRICS = QueryMetrics.of(AircraftImageDao.class, "delete");
+
+    private AircraftImageDao() {
+    }
+
+    public static AircraftImageDao getInstance() {
+        return INSTANCE;
+    }
+
+    public boolean upload(Integer aircraftId, Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return upload(aircraftId, Channels.newInputStream(channel), channel.size());
+        } catch (IOException e) {
+            throw new DaoException(e);
+        }
+    }
+
+    /**
+     * Stores exactly {@code length} bytes of {@code image}, replacing the previous image.
+     * Returns {@code false} when there is no such aircraft.
+     */
+    public boolean upload(Integer aircraftId, InputStream image, long length) {
+        long startNanos = UPLOAD_METRICS.start();
+        try {
+            boolean updated = TransactionTemplate.required().execute(connection -> {
+                Long previousOid = lockImage(connection, aircraftId);
+                if (previousOid == null) {
+                    return false;
+                }
+                try (PreparedStatement preparedStatement = connection.prepareStatement(UPDATE_SQL)) {
+                    if (length < LARGE_OBJECT_THRESHOLD) {
+                        preparedStatement.setBinaryStream(1, image, length);
+                        preparedStatement.setNull(2, Types.BIGINT);
+                    } else {
+                        preparedStatement.setNull(1, Types.BINARY);
+                        preparedStatement.setLong(2, writeLargeObject(connection, image));
+                    }
+                    preparedStatement.setInt(3, aircraftId);
+                    preparedStatement.executeUpdate();
+                }
+                if (previousOid != NO_LARGE_OBJECT) {
+                    largeObjects(connection).delete(previousOid);
+                }
+                return true;
+            });
+            UPLOAD_METRICS.record(startNanos, updated ? 1 : 0);
+            return updated;
+        } catch (RuntimeException e) {
+            UPLOAD_METRICS.recordError(startNanos);
+            throw e instanceof UncheckedIOException io ? new DaoException(io.getCause()) : e;
+        }
+    }
+
+    public OptionalLong download(Integer aircraftId, WritableByteChannel channel) {
+        return download(aircraftId, Channels.newOutputStream(channel));
+    }
+
+    /**
+     * Writes the image to {@code out} and returns its size, or an empty result when the aircraft
+     * has no image. {@code out} is neither flushed nor closed.
+     */
+    public OptionalLong download(Integer aircraftId, OutputStream out) {
+        long startNanos = DOWNLOAD_METRICS.start();
+        try (Connection connection = ConnectionPoolManager.getForRead();
+             PreparedStatement preparedStatement = connection.prepareStatement(FIND_SQL)) {
+
+            // large objects can only be read inside a transaction; its snapshot, taken by the SELECT,
+            // keeps the object readable even if a concurrent upload deletes it in between
+            if (!TransactionTemplate.isActive()) {
+                connection.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+                connection.setAutoCommit(false);
+            }
+            preparedStatement.setInt(1, aircraftId);
+            ResultSet resultSet = preparedStatement.executeQuery();
+
+            OptionalLong size = OptionalLong.empty();
+            if (resultSet.next()) {
+                long oid = resultSet.getLong(1);
+                if (!resultSet.wasNull()) {
+                    size = OptionalLong.of(readLargeObject(connection, oid, out));
+                } else {
+                    InputStream image = resultSet.getBinaryStream(2);
+                    if (image != null) {
+                        size = OptionalLong.of(copy(image, out));
+                    }
+                }
+            }
+            DOWNLOAD_METRICS.record(startNanos, size.isPresent() ? 1 : 0);
+            return size;
+        } catch (SQLException | IOException e) {
+            DOWNLOAD_METRICS.recordError(startNanos);
+            throw new DaoException(e);
+        }
+    }
+
+    public boolean delete(Integer aircraftId) {
+        long startNanos = DELETE_METRICS.start();
+        try {
+            boolean deleted = TransactionTemplate.required().execute(connection -> {
+                Long previousOid = lockImage(connection, aircraftId);
+                if (previousOid == null) {
+                    return false;
+                }
+                try (PreparedStatement preparedStatement = connection.prepareStatement(UPDATE_SQL)) {
+                    preparedStatement.setNull(1, Types.BINARY);
+                    preparedStatement.setNull(2, Types.BIGINT);
+                    preparedStatement.setInt(3, aircraftId);
+                    preparedStatement.executeUpdate();
+                }
+                if (previousOid != NO_LARGE_OBJECT) {
+                    largeObjects(connection).delete(previousOid);
+                }
+                return true;
+            });
+            DELETE_METRICS.record(startNanos, deleted ? 1 : 0);
+            return deleted;
+        } catch (RuntimeException e) {
+            DELETE_METRICS.recordError(startNanos);
+            throw e;
+        }
+    }
+
+    /**
+     * Locks the aircraft row and returns the oid of its current large object, {@code NO_LARGE_OBJECT}
+     * when it has none, or {@code null} when there is no such aircraft.
+     */
+    private static Long lockImage(Connection connection, Integer aircraftId) throws SQLException {
+        try (PreparedStatement preparedStatement = connection.prepareStatement(LOCK_SQL)) {
+            preparedStatement.setInt(1, aircraftId);
+            ResultSet resultSet = preparedStatement.executeQuery();
+            return resultSet.next() ? resultSet.getLong(1) : null;
+        }
+    }
+
+    private static long writeLargeObject(Connection connection, InputStream image) throws SQLException {
+        LargeObjectManager largeObjects = largeObjects(connection);
+        long oid = largeObjects.createLO(LargeObjectManager.READWRITE);
+        try (LargeObject largeObject = largeObjects.open(oid, LargeObjectManager.WRITE)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = image.read(buffer)) != -1) {
+                largeObject.write(buffer, 0, read);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return oid;
+    }
+
+    private static long readLargeObject(Connection connection, long oid, OutputStream out) throws SQLException, IOException {
+        try (LargeObject largeObject = largeObjects(connection).open(oid, LargeObjectManager.READ)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            long size = 0;
+            int read;
+            while ((read = largeObject.read(buffer, 0, buffer.length)) > 0) {
+                out.write(buffer, 0, read);
+                size += read;
+            }
+            return size;
+        }
+    }
+
+    private static long copy(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long size = 0;
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+            size += read;
+        }
+        return size;
+    }
+
+    private static LargeObjectManager largeObjects(Connection connection) throws SQLException {
+        return connection.unwrap(PGConnection.class).getLargeObjectAPI();
+    }
+}
@@ -0,0 +1,73 @@
+package com.dmdev.jdbc.starter.dao;
+
+import com.dmdev.jdbc.starter.dto.BatchResult;
+import com.dmdev.jdbc.starter.entity.Flight;
+import com.dmdev.jdbc.starter.entity.Ticket;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+public final class AsyncDao<K, E, D extends Dao<K, E>> {
+
+    private final D dao;
+    private final DaoExecutor executor;
+
+    private AsyncDao(D dao, DaoExecutor executor) {
+        this.dao = dao;
+        this.executor = executor;
+    }
+
+    public static <K, E, D extends Dao<K, E>> AsyncDao<K, E, D> of(D dao) {
+        return new AsyncDao<>(dao, DaoExecutor.getInstance());
+    }
+
+    public static AsyncDao<Long, Ticket, TicketDao> tickets() {
+        return of(TicketDao.getInstance());
+    }
+
+    public static AsyncDao<Long, Flight, FlightDao> flights() {
+        return of(FlightDao.getInstance());
+    }
+
+    public CompletableFuture<Optional<E>> findById(K id) {
+        return executor.submit(() -> dao.findById(id));
+    }
+
+    public CompletableFuture<List<E>> findAll() {
+        return executor.submit(dao::findAll);
+    }
+
+    public CompletableFuture<E> save(E entity) {
+        return executor.submit(() -> dao.save(entity));
+    }
+
+    public CompletableFuture<Void> update(E entity) {
+        return executor.submit(() -> {
+            dao.update(entity);
+            return null;
+        });
+    }
+
+    public CompletableFuture<Boolean> delete(K id) {
+        return executor.submit(() -> dao.delete(id));
+    }
+
+    public CompletableFuture<BatchResult<K>> saveAll(List<E> entities) {
+        return executor.submit(() -> dao.saveAll(entities));
+    }
+
+    public CompletableFuture<BatchResult<K>> updateAll(List<E> entities) {
+        return executor.submit(() -> dao.updateAll(entities));
+    }
+
+    public CompletableFuture<BatchResult<K>> deleteAllById(Collection<K> ids) {
+        return executor.submit(() -> dao.deleteAllById(ids));
+    }
+
+    public <T> CompletableFuture<T> call(Function<D, T> query) {
+        return executor.submit(() -> query.apply(dao));
+    }
+}
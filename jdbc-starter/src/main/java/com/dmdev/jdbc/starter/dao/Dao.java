@@ -1,7 +1,8 @@
 package com.dmdev.jdbc.starter.dao;
 
-import com.dmdev.jdbc.starter.entity.Ticket;
+import com.dmdev.jdbc.starter.dto.BatchResult;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,4 +17,10 @@ public interface Dao<K, E> {
     Optional<E> findById(K id);
 
     List<E> findAll();
+
+    BatchResult<K> saveAll(List<E> entities);
+
+    BatchResult<K> updateAll(List<E> entities);
+
+    BatchResult<K> deleteAllById(Collection<K> ids);
 }
@@ -0,0 +1,98 @@
+package com.dmdev.jdbc.starter.dao;
+
+import com.dmdev.jdbc.starter.metrics.MetricsRegistry;
+import com.dmdev.jdbc.starter.util.ConnectionPoolManager;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs blocking DAO calls off the caller's thread with at most as many calls in flight as the
+ * connection pool has connections. Excess calls wait in a FIFO queue as plain futures, so they
+ * hold neither a thread nor a connection while queued.
+ */
+public final class DaoExecutor {
+
+    private static final DaoExecutor INSTANCE = new DaoExecutor(ConnectionPoolManager.maxSize());
+
+    private final ExecutorService executor;
+    private final AtomicInteger available;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Queue<Runnable> queue = new ConcurrentLinkedQueue<>();
+
+    private DaoExecutor(int maxInFlight) {
+        this.executor = createExecutor(maxInFlight);
+        this.available = new AtomicInteger(maxInFlight);
+
+        MetricsRegistry registry = MetricsRegistry.getInstance();
+        registry.gauge("dao.async.inflight", () -> maxInFlight - available.get());
+        registry.gauge("dao.async.queued", queued::get);
+    }
+
+    public static DaoExecutor getInstance() {
+        return INSTANCE;
+    }
+
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        queued.incrementAndGet();
+        queue.offer(() -> run(task, future));
+        dispatch();
+        return future;
+    }
+
+    private <T> void run(Supplier<T> task, CompletableFuture<T> future) {
+        try {
+            if (!future.isDone()) {
+                future.complete(task.get());
+            }
+        } catch (Throwable e) {
+            future.completeExceptionally(e);
+        } finally {
+            available.incrementAndGet();
+            dispatch();
+        }
+    }
+
+    private void dispatch() {
+        while (!queue.isEmpty()) {
+            int permits = available.get();
+            if (permits == 0) {
+                return;
+            }
+            if (!available.compareAndSet(permits, permits - 1)) {
+                continue;
+            }
+            Runnable next = queue.poll();
+            if (next == null) {
+                available.incrementAndGet();
+                continue;
+            }
+            queued.decrementAndGet();
+            try {
+                executor.execute(next);
+            } catch (RejectedExecutionException e) {
+                next.run();
+            }
+        }
+    }
+
+    private static ExecutorService createExecutor(int maxInFlight) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            AtomicInteger threadNumber = new AtomicInteger();
+            return Executors.newFixedThreadPool(maxInFlight, runnable -> {
+                Thread thread = new Thread(runnable, "dao-async-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.dmdev.jdbc.starter.dao;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Shared, stateless description of how to build an entity from a row. {@link #bind} resolves
+ * the column indexes of one result set and returns a {@link RowMapper} that reads by index.
+ */
+@FunctionalInterface
+public interface EntityMapper<T> {
+
+    RowMapper<T> bind(ResultSetColumns columns) throws SQLException;
+
+    default RowMapper<T> bind(ResultSet resultSet) throws SQLException {
+        return bind(ResultSetColumns.of(resultSet.getMetaData()));
+    }
+}
@@ -1,21 +1,53 @@
 package com.dmdev.jdbc.starter.dao;
 
+import com.dmdev.jdbc.starter.cache.ReadThroughCache;
+import com.dmdev.jdbc.starter.dto.BatchResult;
+import com.dmdev.jdbc.starter.dto.BatchResult.BatchFailure;
+import com.dmdev.jdbc.starter.dto.FlightTicketCount;
 import com.dmdev.jdbc.starter.entity.Flight;
 import com.dmdev.jdbc.starter.exception.DaoException;
+import com.dmdev.jdbc.starter.metrics.QueryMetrics;
 import com.dmdev.jdbc.starter.util.ConnectionPoolManager;
+import com.dmdev.jdbc.starter.util.PropertiesUtil;
+import com.dmdev.jdbc.starter.util.TransactionTemplate;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public class FlightDao implements Dao<Long, Flight> {
 
     private static final FlightDao INSTANCE = new FlightDao();
+    private static final QueryMetrics FIND_BY_ID_METRICS = QueryMetrics.of(FlightDao.class, "findById");
+    private static final QueryMetrics FIND_ALL_BY_IDS_METRICS = QueryMetrics.of(FlightDao.class, "findAllByIds");
+    private static final QueryMetrics SAVE_METRICS = QueryMetrics.of(FlightDao.class, "save");
+    private static final QueryMetrics UPDATE_METRICS = QueryMetrics.of(FlightDao.class, "update");
+    private static final QueryMetrics DELETE_METRICS = QueryMetrics.of(FlightDao.class, "delete");
+    private static final String FIND_BY_DEPARTURE_WINDOW_OPERATION = FlightDao.class.getSimpleName() + ".findByDepartureWindow";
+    private static final int DEFAULT_FETCH_SIZE = PropertiesUtil.getInt("db.fetch.size", 1000);
+
+    private final ReadThroughCache<Long, Flight> cache;
 
     private FlightDao() {
+        this.cache = PropertiesUtil.getBoolean("dao.flight.cache.enabled", false)
+                ? new ReadThroughCache<>("flight",
+                        PropertiesUtil.getInt("dao.flight.cache.size", 10_000),
+                        Duration.ofMillis(PropertiesUtil.getLong("dao.flight.cache.ttl.ms", 60_000)),
+                        this::load)
+                : null;
     }
 
 
@@ -36,31 +68,243 @@ public class FlightDao implements Dao<Long, Flight> {
             WHERE id = ?
             """;
 
+    private static final String FIND_ALL_BY_IDS_SQL = """
+            SELECT id,
+            flight_no,
+            departure_date,
+            departure_airport_code,
+            arrival_date,
+            arrival_airport_code,
+            status,aircraft_id
+            FROM flight
+            WHERE id = ANY(?)
+            """;
+
+    private static final String DEPARTURE_WINDOW_SQL = """
+            FROM flight
+            WHERE departure_date >= ?
+              AND departure_date < ?
+            """;
+
+    private static final String DEPARTURE_AIRPORT_SQL = """
+              AND departure_airport_code = ?
+            """;
+
+    private static final String DEPARTURE_ORDER_SQL = """
+            ORDER BY departure_date, id
+            """;
+
+    private static final String FLIGHT_COLUMNS_SQL = """
+            SELECT id,
+            flight_no,
+            departure_date,
+            departure_airport_code,
+            arrival_date,
+            arrival_airport_code,
+            status,aircraft_id
+            """;
+
+    private static final String TICKET_COUNT_SQL = """
+            , (SELECT count(*) FROM ticket WHERE ticket.flight_id = flight.id) AS ticket_count
+            """;
+
+    private static final String FIND_BY_DEPARTURE_WINDOW_SQL =
+            FLIGHT_COLUMNS_SQL + DEPARTURE_WINDOW_SQL + DEPARTURE_ORDER_SQL;
+    private static final String FIND_BY_DEPARTURE_WINDOW_AND_AIRPORT_SQL =
+            FLIGHT_COLUMNS_SQL + DEPARTURE_WINDOW_SQL + DEPARTURE_AIRPORT_SQL + DEPARTURE_ORDER_SQL;
+    private static final String FIND_TICKET_COUNTS_BY_DEPARTURE_WINDOW_SQL =
+            FLIGHT_COLUMNS_SQL + TICKET_COUNT_SQL + DEPARTURE_WINDOW_SQL + DEPARTURE_ORDER_SQL;
+    private static final String FIND_TICKET_COUNTS_BY_DEPARTURE_WINDOW_AND_AIRPORT_SQL =
+            FLIGHT_COLUMNS_SQL + TICKET_COUNT_SQL + DEPARTURE_WINDOW_SQL + DEPARTURE_AIRPORT_SQL + DEPARTURE_ORDER_SQL;
+
+    private static final EntityMapper<FlightTicketCount> TICKET_COUNT_MAPPER = columns -> {
+        RowMapper<Flight> flightMapper = FlightMapper.INSTANCE.bind(columns);
+        int ticketCount = columns.indexOf("ticket_count");
+        return resultSet -> new FlightTicketCount(flightMapper.map(resultSet), resultSet.getLong(ticketCount));
+    };
+
+    private static final String SAVE_SQL = """
+            INSERT INTO flight (flight_no, departure_date, departure_airport_code, arrival_date, arrival_airport_code, aircraft_id, status)
+            VALUES (?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private static final String UPDATE_SQL = """
+            UPDATE flight
+            SET flight_no = ?,
+                departure_date = ?,
+                departure_airport_code = ?,
+                arrival_date = ?,
+                arrival_airport_code = ?,
+                aircraft_id = ?,
+                status = ?
+            WHERE id = ?
+            """;
+
+    private static final String DELETE_SQL = """
+            DELETE FROM flight WHERE id = ?
+            """;
+
+    static {
+        QueryPlanCheck.register(FIND_BY_ID_METRICS.operation(), FIND_BY_ID_SQL,
+                preparedStatement -> preparedStatement.setLong(1, 1L));
+        QueryPlanCheck.register(FIND_ALL_BY_IDS_METRICS.operation(), FIND_ALL_BY_IDS_SQL,
+                preparedStatement -> preparedStatement.setArray(1,
+                        preparedStatement.getConnection().createArrayOf("bigint", new Object[]{1L, 2L})));
+        QueryPlanCheck.register(DELETE_METRICS.operation(), DELETE_SQL,
+                preparedStatement -> preparedStatement.setLong(1, 1L));
+        LocalDateTime weekAgo = LocalDateTime.now().minusWeeks(1);
+        QueryPlanCheck.register(FIND_BY_DEPARTURE_WINDOW_OPERATION, FIND_BY_DEPARTURE_WINDOW_SQL,
+                departureWindowBinder(weekAgo, LocalDateTime.now(), null));
+        QueryPlanCheck.register(FIND_BY_DEPARTURE_WINDOW_OPERATION + "(airport)", FIND_BY_DEPARTURE_WINDOW_AND_AIRPORT_SQL,
+                departureWindowBinder(weekAgo, LocalDateTime.now(), "MNK"));
+    }
+
     @Override
     public boolean delete(Long id) {
-        return false;
+        long startNanos = DELETE_METRICS.start();
+        try (Connection connection = ConnectionPoolManager.get();
+             PreparedStatement preparedStatement = connection.prepareStatement(DELETE_SQL)) {
+
+            preparedStatement.setLong(1, id);
+            int rows = preparedStatement.executeUpdate();
+            DELETE_METRICS.record(startNanos, rows);
+            return rows > 0;
+        } catch (SQLException e) {
+            DELETE_METRICS.recordError(startNanos);
+            throw new DaoException(e);
+        } finally {
+            invalidate(id);
+        }
     }
 
     @Override
-    public Flight save(Flight ticket) {
-        return null;
+    public Flight save(Flight flight) {
+        long startNanos = SAVE_METRICS.start();
+        try (Connection connection = ConnectionPoolManager.get();
+             PreparedStatement preparedStatement = connection.prepareStatement(SAVE_SQL, Statement.RETURN_GENERATED_KEYS)) {
+
+            bindSave(preparedStatement, flight);
+            int rows = preparedStatement.executeUpdate();
+
+            ResultSet generatedKeys = preparedStatement.getGeneratedKeys();
+            Flight saved = generatedKeys.next() ? FlightMapper.INSTANCE.bind(generatedKeys).map(generatedKeys) : flight;
+            SAVE_METRICS.record(startNanos, rows);
+            return saved;
+        } catch (SQLException e) {
+            SAVE_METRICS.recordError(startNanos);
+            throw new DaoException(e);
+        }
     }
 
     @Override
-    public void update(Flight ticket) {
+    public void update(Flight flight) {
+        long startNanos = UPDATE_METRICS.start();
+        try (Connection connection = ConnectionPoolManager.get();
+             PreparedStatement preparedStatement = connection.prepareStatement(UPDATE_SQL)) {
 
+            bindSave(preparedStatement, flight);
+            preparedStatement.setLong(8, flight.id());
+            UPDATE_METRICS.record(startNanos, preparedStatement.executeUpdate());
+        } catch (SQLException e) {
+            UPDATE_METRICS.recordError(startNanos);
+            throw new DaoException(e);
+        } finally {
+            invalidate(flight.id());
+        }
+    }
+
+    public ReadThroughCache<Long, Flight> cache() {
+        return cache;
+    }
+
+    private void invalidate(Long id) {
+        if (cache != null) {
+            cache.invalidate(id);
+            TransactionTemplate.afterCompletion(() -> cache.invalidate(id));
+        }
+    }
+
+    private static void bindSave(PreparedStatement preparedStatement, Flight flight) throws SQLException {
+        preparedStatement.setString(1, flight.flightNo());
+        preparedStatement.setTimestamp(2, Timestamp.valueOf(flight.departureDate()));
+        preparedStatement.setString(3, flight.departureAirportCode());
+        preparedStatement.setTimestamp(4, Timestamp.valueOf(flight.arrivalDate()));
+        preparedStatement.setString(5, flight.arrivalAirportCode());
+        preparedStatement.setInt(6, flight.aircraftId());
+        preparedStatement.setString(7, flight.status());
+    }
+
+    @Override
+    public BatchResult<Long> saveAll(List<Flight> flights) {
+        List<Long> keys = new ArrayList<>(flights.size());
+        List<BatchFailure> failures = new ArrayList<>();
+        for (int i = 0; i < flights.size(); i++) {
+            try {
+                Flight saved = save(flights.get(i));
+                keys.add(saved == null ? null : saved.id());
+            } catch (DaoException e) {
+                keys.add(null);
+                failures.add(new BatchFailure(i, e));
+            }
+        }
+        return new BatchResult<>(keys, failures);
+    }
+
+    @Override
+    public BatchResult<Long> updateAll(List<Flight> flights) {
+        List<Long> keys = new ArrayList<>(flights.size());
+        List<BatchFailure> failures = new ArrayList<>();
+        for (int i = 0; i < flights.size(); i++) {
+            try {
+                update(flights.get(i));
+                keys.add(flights.get(i).id());
+            } catch (DaoException e) {
+                keys.add(null);
+                failures.add(new BatchFailure(i, e));
+            }
+        }
+        return new BatchResult<>(keys, failures);
+    }
+
+    @Override
+    public BatchResult<Long> deleteAllById(Collection<Long> ids) {
+        List<Long> keys = new ArrayList<>(ids.size());
+        List<BatchFailure> failures = new ArrayList<>();
+        int i = 0;
+        for (Long id : ids) {
+            try {
+                keys.add(delete(id) ? id : null);
+            } catch (DaoException e) {
+                keys.add(null);
+                failures.add(new BatchFailure(i, e));
+            }
+            i++;
+        }
+        return new BatchResult<>(keys, failures);
     }
 
     @Override
     public Optional<Flight> findById(Long id) {
-        try (Connection connection = ConnectionPoolManager.get()) {
-            return findById(id, connection);
+        return cache == null || TransactionTemplate.isReadWriteActive()
+                ? Optional.ofNullable(load(id, ConnectionPoolManager.getForRead()))
+                : Optional.ofNullable(cache.get(id));
+    }
+
+    // cache misses read the primary: a lagging replica could put an invalidated row back for a whole TTL
+    private Flight load(Long id) {
+        return load(id, ConnectionPoolManager.get());
+    }
+
+    private Flight load(Long id, Connection borrowed) {
+        try (Connection connection = borrowed) {
+            return findById(id, connection).orElse(null);
         } catch (SQLException e) {
             throw new DaoException(e);
         }
     }
 
     public Optional<Flight> findById(Long id, Connection connection) {
+        long startNanos = FIND_BY_ID_METRICS.start();
         try (PreparedStatement preparedStatement = connection.prepareStatement(FIND_BY_ID_SQL)) {
 
             preparedStatement.setLong(1, id);
@@ -70,25 +314,81 @@ public class FlightDao implements Dao<Long, Flight> {
             Flight flight = null;
 
             if(resultSet.next()) {
-                flight = new Flight(
-                        resultSet.getLong("id"),
-                        resultSet.getString("flight_no"),
-                        resultSet.getTimestamp("departure_date").toLocalDateTime(),
-                        resultSet.getString("departure_airport_code"),
-                        resultSet.getTimestamp("arrival_date").toLocalDateTime(),
-                        resultSet.getString("arrival_airport_code"),
-                        resultSet.getInt("aircraft_id"),
-                        resultSet.getString("status")
-                );
+                flight = FlightMapper.INSTANCE.bind(resultSet).map(resultSet);
             }
 
+            FIND_BY_ID_METRICS.record(startNanos, flight == null ? 0 : 1);
             return Optional.ofNullable(flight);
         } catch (SQLException e) {
+            FIND_BY_ID_METRICS.recordError(startNanos);
+            throw new DaoException(e);
+        }
+    }
+
+
+
+    public Map<Long, Flight> findAllByIds(Collection<Long> ids, Connection connection) {
+        Map<Long, Flight> flights = new HashMap<>();
+        if (ids.isEmpty()) {
+            return flights;
+        }
+
+        long startNanos = FIND_ALL_BY_IDS_METRICS.start();
+        try (PreparedStatement preparedStatement = connection.prepareStatement(FIND_ALL_BY_IDS_SQL)) {
+
+            preparedStatement.setArray(1, connection.createArrayOf("bigint", ids.toArray()));
+
+            ResultSet resultSet = preparedStatement.executeQuery();
+            RowMapper<Flight> flightMapper = FlightMapper.INSTANCE.bind(resultSet);
+            while (resultSet.next()) {
+                Flight flight = flightMapper.map(resultSet);
+                flights.put(flight.id(), flight);
+            }
+
+            FIND_ALL_BY_IDS_METRICS.record(startNanos, flights.size());
+            return flights;
+        } catch (SQLException e) {
+            FIND_ALL_BY_IDS_METRICS.recordError(startNanos);
             throw new DaoException(e);
         }
     }
 
+    /**
+     * Streams the flights departing in {@code [from, to)}, optionally only from {@code airportCode}, in
+     * departure order. The stream holds a connection until it is closed or exhausted.
+     */
+    public Stream<Flight> findByDepartureWindow(LocalDateTime from, LocalDateTime to, String airportCode) {
+        // validated before a connection is borrowed
+        StatementBinder binder = departureWindowBinder(from, to, airportCode);
+        return ResultSetSpliterator.stream(ConnectionPoolManager.getForRead(),
+                airportCode == null ? FIND_BY_DEPARTURE_WINDOW_SQL : FIND_BY_DEPARTURE_WINDOW_AND_AIRPORT_SQL,
+                DEFAULT_FETCH_SIZE, binder, FlightMapper.INSTANCE);
+    }
+
+    /**
+     * Same as {@link #findByDepartureWindow}, with the number of tickets sold for each flight.
+     */
+    public Stream<FlightTicketCount> findTicketCountsByDepartureWindow(LocalDateTime from, LocalDateTime to,
+                                                                       String airportCode) {
+        StatementBinder binder = departureWindowBinder(from, to, airportCode);
+        return ResultSetSpliterator.stream(ConnectionPoolManager.getForRead(),
+                airportCode == null
+                        ? FIND_TICKET_COUNTS_BY_DEPARTURE_WINDOW_SQL
+                        : FIND_TICKET_COUNTS_BY_DEPARTURE_WINDOW_AND_AIRPORT_SQL,
+                DEFAULT_FETCH_SIZE, binder, TICKET_COUNT_MAPPER);
+    }
 
+    private static StatementBinder departureWindowBinder(LocalDateTime from, LocalDateTime to, String airportCode) {
+        Objects.requireNonNull(from, "from");
+        Objects.requireNonNull(to, "to");
+        return preparedStatement -> {
+            preparedStatement.setTimestamp(1, Timestamp.valueOf(from));
+            preparedStatement.setTimestamp(2, Timestamp.valueOf(to));
+            if (airportCode != null) {
+                preparedStatement.setString(3, airportCode);
+            }
+        };
+    }
 
     @Override
     public List<Flight> findAll() {
@@ -0,0 +1,6 @@
+package com.dmdev.jdbc.starter.dao;
+
+public enum FlightFetchMode {
+    JOIN,
+    BATCH
+}
@@ -0,0 +1,36 @@
+package com.dmdev.jdbc.starter.dao;
+
+import com.dmdev.jdbc.starter.entity.Flight;
+
+import java.sql.SQLException;
+
+final class FlightMapper implements EntityMapper<Flight> {
+
+    static final FlightMapper INSTANCE = new FlightMapper();
+
+    private FlightMapper() {
+    }
+
+    @Override
+    public RowMapper<Flight> bind(ResultSetColumns columns) throws SQLException {
+        int id = columns.indexOf("id");
+        int flightNo = columns.indexOf("flight_no");
+        int departureDate = columns.indexOf("departure_date");
+        int departureAirportCode = columns.indexOf("departure_airport_code");
+        int arrivalDate = columns.indexOf("arrival_date");
+        int arrivalAirportCode = columns.indexOf("arrival_airport_code");
+        int aircraftId = columns.indexOf("aircraft_id");
+        int status = columns.indexOf("status");
+
+        return resultSet -> new Flight(
+                resultSet.getLong(id),
+                resultSet.getString(flightNo),
+                resultSet.getTimestamp(departureDate).toLocalDateTime(),
+                resultSet.getString(departureAirportCode),
+                resultSet.getTimestamp(arrivalDate).toLocalDateTime(),
+                resultSet.getString(arrivalAirportCode),
+                resultSet.getInt(aircraftId),
+                resultSet.getString(status)
+        );
+    }
+}
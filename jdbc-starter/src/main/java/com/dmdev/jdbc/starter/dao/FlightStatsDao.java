@@ -0,0 +1,201 @@
+package com.dmdev.jdbc.starter.dao;
+
+import com.dmdev.jdbc.starter.dto.FlightStats;
+import com.dmdev.jdbc.starter.dto.FlightStatsDrift;
+import com.dmdev.jdbc.starter.exception.DaoException;
+import com.dmdev.jdbc.starter.metrics.QueryMetrics;
+import com.dmdev.jdbc.starter.util.ConnectionPoolManager;
+import com.dmdev.jdbc.starter.util.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Seats sold and revenue per flight from {@code flight_stats}. The table is maintained by triggers on
+ * {@code ticket} (migration V4) in the transaction of every insert, update and delete, whether it comes
+ * from {@link TicketDao}, a batch, {@code COPY} or plain SQL, so a read is one primary key lookup.
+ * A flight without tickets has no row and reads as zero.
+ * <p>
+ * {@link #verify()} compares the table with an aggregate over {@code ticket}; {@link #rebuild()}
+ * recomputes the rows that drifted, for example after the triggers were disabled for a bulk load.
+ */
+public class FlightStatsDao {
+
+    private static final FlightStatsDao INSTANCE = new FlightStatsDao();
+
+    private static final String FIND_BY_FLIGHT_ID_SQL = """
+            SELECT flight_id, seats_sold, revenue
+            FROM flight_stats
+            WHERE flight_id = ?
+            """;
+
+    private static final String FIND_ALL_BY_FLIGHT_IDS_SQL = """
+            SELECT flight_id, seats_sold, revenue
+            FROM flight_stats
+            WHERE flight_id = ANY(?)
+            """;
+
+    private static final String VERIFY_SQL = """
+            SELECT coalesce(s.flight_id, a.flight_id) AS flight_id,
+                coalesce(s.seats_sold, 0) AS recorded_seats_sold,
+                coalesce(s.revenue, 0) AS recorded_revenue,
+                coalesce(a.seats_sold, 0) AS actual_seats_sold,
+                coalesce(a.revenue, 0) AS actual_revenue
+            FROM flight_stats s
+            FULL JOIN (SELECT flight_id, count(*) AS seats_sold, sum(cost) AS revenue
+                       FROM ticket
+                       GROUP BY flight_id) a
+            ON a.flight_id = s.flight_id
+            WHERE coalesce(s.seats_sold, 0) <> coalesce(a.seats_sold, 0)
+               OR coalesce(s.revenue, 0) <> coalesce(a.revenue, 0)
+            ORDER BY 1
+            """;
+
+    // the triggers add deltas to the rows; writers wait so that none is lost under the recomputed value
+    private static final String LOCK_TICKET_SQL = """
+            LOCK TABLE ticket IN SHARE MODE
+            """;
+
+    private static final String REBUILD_SQL = """
+            INSERT INTO flight_stats (flight_id, seats_sold, revenue)
+            SELECT flight_id, count(*), sum(cost)
+            FROM ticket
+            GROUP BY flight_id
+            ORDER BY flight_id
+            ON CONFLICT (flight_id) DO UPDATE
+            SET seats_sold = EXCLUDED.seats_sold,
+                revenue = EXCLUDED.revenue
+            WHERE (flight_stats.seats_sold, flight_stats.revenue) IS DISTINCT FROM (EXCLUDED.seats_sold, EXCLUDED.revenue)
+            """;
+
+    private static final String DELETE_STALE_SQL = """
+            DELETE FROM flight_stats s
+            WHERE (s.seats_sold <> 0 OR s.revenue <> 0)
+              AND NOT EXISTS (SELECT 1 FROM ticket t WHERE t.flight_id = s.flight_id)
+            """;
+
+    private static final QueryMetrics FIND_BY_FLIGHT_ID_METRICS = QueryMetrics.of(FlightStatsDao.class, "findByFlightId");
+    private static final QueryMetrics FIND_ALL_BY_FLIGHT_IDS_METRICS = QueryMetrics.of(FlightStatsDao.class, "findAllByFlightIds");
+    private static final QueryMetrics VERIFY_METRICS = QueryMetrics.of(FlightStatsDao.class, "verify");
+    private static final QueryMetrics REBUILD_METRICS = QueryMetrics.of(FlightStatsDao.class, "rebuild");
+
+    static {
+        QueryPlanCheck.register(FIND_BY_FLIGHT_ID_METRICS.operation(), FIND_BY_FLIGHT_ID_SQL,
+                preparedStatement -> preparedStatement.setLong(1, 1L));
+        QueryPlanCheck.register(FIND_ALL_BY_FLIGHT_IDS_METRICS.operation(), FIND_ALL_BY_FLIGHT_IDS_SQL,
+                preparedStatement -> preparedStatement.setArray(1,
+                        preparedStatement.getConnection().createArrayOf("bigint", new Object[]{1L, 2L})));
+    }
+
+    private FlightStatsDao() {
+    }
+
+    public static FlightStatsDao getInstance() {
+        return INSTANCE;
+    }
+
+    public FlightStats findByFlightId(Long flightId) {
+        long startNanos = FIND_BY_FLIGHT_ID_METRICS.start();
+        try (Connection connection = ConnectionPoolManager.getForRead();
+             PreparedStatement preparedStatement = connection.prepareStatement(FIND_BY_FLIGHT_ID_SQL)) {
+
+            preparedStatement.setLong(1, flightId);
+            ResultSet resultSet = preparedStatement.executeQuery();
+            FlightStats stats = resultSet.next() ? map(resultSet) : FlightStats.empty(flightId);
+            FIND_BY_FLIGHT_ID_METRICS.record(startNanos, 1);
+            return stats;
+        } catch (SQLException e) {
+            FIND_BY_FLIGHT_ID_METRICS.recordError(startNanos);
+            throw new DaoException(e);
+        }
+    }
+
+    /**
+     * Stats of every flight in {@code flightIds}, in one round trip; flights without tickets map to zero.
+     */
+    public Map<Long, FlightStats> findAllByFlightIds(Collection<Long> flightIds) {
+        Map<Long, FlightStats> stats = new HashMap<>();
+        for (Long flightId : flightIds) {
+            stats.put(flightId, FlightStats.empty(flightId));
+        }
+        if (flightIds.isEmpty()) {
+            return stats;
+        }
+
+        long startNanos = FIND_ALL_BY_FLIGHT_IDS_METRICS.start();
+        try (Connection connection = ConnectionPoolManager.getForRead();
+             PreparedStatement preparedStatement = connection.prepareStatement(FIND_ALL_BY_FLIGHT_IDS_SQL)) {
+
+            preparedStatement.setArray(1, connection.createArrayOf("bigint", flightIds.toArray()));
+            ResultSet resultSet = preparedStatement.executeQuery();
+            while (resultSet.next()) {
+                FlightStats flightStats = map(resultSet);
+                stats.put(flightStats.flightId(), flightStats);
+            }
+            FIND_ALL_BY_FLIGHT_IDS_METRICS.record(startNanos, stats.size());
+            return stats;
+        } catch (SQLException e) {
+            FIND_ALL_BY_FLIGHT_IDS_METRICS.recordError(startNanos);
+            throw new DaoException(e);
+        }
+    }
+
+    /**
+     * Flights whose recorded stats differ from the tickets; empty when the table is consistent.
+     * Reads all of {@code ticket} on the primary.
+     */
+    public List<FlightStatsDrift> verify() {
+        long startNanos = VERIFY_METRICS.start();
+        try (Connection connection = ConnectionPoolManager.get();
+             PreparedStatement preparedStatement = connection.prepareStatement(VERIFY_SQL)) {
+
+            ResultSet resultSet = preparedStatement.executeQuery();
+            List<FlightStatsDrift> drifts = new ArrayList<>();
+            while (resultSet.next()) {
+                Long flightId = resultSet.getLong("flight_id");
+                drifts.add(new FlightStatsDrift(
+                        new FlightStats(flightId, resultSet.getInt("recorded_seats_sold"), resultSet.getBigDecimal("recorded_revenue")),
+                        new FlightStats(flightId, resultSet.getInt("actual_seats_sold"), resultSet.getBigDecimal("actual_revenue"))));
+            }
+            VERIFY_METRICS.record(startNanos, drifts.size());
+            return drifts;
+        } catch (SQLException e) {
+            VERIFY_METRICS.recordError(startNanos);
+            throw new DaoException(e);
+        }
+    }
+
+    /**
+     * Recomputes the rows {@link #verify()} would report and returns how many there were.
+     * Ticket writes wait until it commits.
+     */
+    public int rebuild() {
+        long startNanos = REBUILD_METRICS.start();
+        try {
+            int rows = TransactionTemplate.required().execute(connection -> {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute(LOCK_TICKET_SQL);
+                    return statement.executeUpdate(REBUILD_SQL) + statement.executeUpdate(DELETE_STALE_SQL);
+                }
+            });
+            REBUILD_METRICS.record(startNanos, rows);
+            return rows;
+        } catch (RuntimeException e) {
+            REBUILD_METRICS.recordError(startNanos);
+            throw e;
+        }
+    }
+
+    private static FlightStats map(ResultSet resultSet) throws SQLException {
+        return new FlightStats(resultSet.getLong("flight_id"), resultSet.getInt("seats_sold"),
+                resultSet.getBigDecimal("revenue"));
+    }
+}
@@ -0,0 +1,137 @@
+package com.dmdev.jdbc.starter.dao;
+
+import com.dmdev.jdbc.starter.exception.DaoException;
+import com.dmdev.jdbc.starter.metrics.QueryMetrics;
+import com.dmdev.jdbc.starter.util.ConnectionPoolManager;
+import com.dmdev.jdbc.starter.util.PropertiesUtil;
+import com.dmdev.jdbc.starter.util.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static java.lang.System.Logger.Level.WARNING;
+
+/**
+ * Index coverage check for the hot queries of the DAOs. Each DAO registers the SQL of its keyed
+ * lookups together with sample parameters; {@link #run()} runs {@code EXPLAIN} on every one of them
+ * and warns about sequential scans of tables with at least {@code db.index.check.min.rows} rows
+ * (as estimated by the last {@code ANALYZE}). With {@code db.index.check.enabled} the queries are
+ * checked as each DAO is loaded, so a missing index shows up in the start-up log.
+ * <p>
+ * Queries that read whole tables on purpose, such as {@code findAll()}, are not registered.
+ */
+public final class QueryPlanCheck {
+
+    private static final System.Logger LOGGER = System.getLogger(QueryPlanCheck.class.getName());
+    private static final boolean ON_LOAD = PropertiesUtil.getBoolean("db.index.check.enabled", false);
+    private static final long MIN_ROWS = PropertiesUtil.getLong("db.index.check.min.rows", 10_000);
+    private static final Pattern SEQ_SCAN = Pattern.compile("Seq Scan on (\\w+)");
+    private static final List<Query> QUERIES = new CopyOnWriteArrayList<>();
+
+    private static final String TABLE_ROWS_SQL = """
+            SELECT greatest(reltuples, 0)::bigint
+            FROM pg_class
+            WHERE oid = to_regclass(?)
+            """;
+
+    private QueryPlanCheck() {
+    }
+
+    /**
+     * Registers {@code sql} under {@code operation}, normally the {@link QueryMetrics#operation()} that
+     * times it. {@code sample} binds parameters typical of production calls, as they decide the plan.
+     */
+    static void register(String operation, String sql, StatementBinder sample) {
+        Query query = new Query(operation, sql, sample);
+        QUERIES.add(query);
+        // a failed EXPLAIN would abort the caller's transaction
+        if (ON_LOAD && !TransactionTemplate.isActive()) {
+            try (Connection connection = ConnectionPoolManager.get()) {
+                check(connection, query, new HashMap<>());
+            } catch (SQLException | RuntimeException e) {
+                LOGGER.log(WARNING, "Unable to check the plan of " + query.operation(), e);
+            }
+        }
+    }
+
+    /**
+     * Explains every registered query, logs and returns the sequential scans of large tables.
+     */
+    public static List<SeqScan> run() {
+        // loading the DAOs registers their queries
+        TicketDao.getInstance();
+        FlightDao.getInstance();
+        FlightStatsDao.getInstance();
+        SeatDao.getInstance();
+
+        List<SeqScan> scans = new ArrayList<>();
+        Map<String, Long> tableRows = new HashMap<>();
+        try (Connection connection = ConnectionPoolManager.get()) {
+            for (Query query : QUERIES) {
+                scans.addAll(check(connection, query, tableRows));
+            }
+        } catch (SQLException e) {
+            throw new DaoException(e);
+        }
+        return scans;
+    }
+
+    private static List<SeqScan> check(Connection connection, Query query, Map<String, Long> tableRows)
+            throws SQLException {
+        List<SeqScan> scans = new ArrayList<>();
+        for (String line : explain(connection, query)) {
+            Matcher matcher = SEQ_SCAN.matcher(line);
+            if (!matcher.find()) {
+                continue;
+            }
+            String table = matcher.group(1);
+            Long rows = tableRows.get(table);
+            if (rows == null) {
+                rows = rows(connection, table);
+                tableRows.put(table, rows);
+            }
+            if (rows >= MIN_ROWS) {
+                SeqScan scan = new SeqScan(query.operation(), table, rows);
+                LOGGER.log(WARNING, "{0} plans a sequential scan on {1} (~{2} rows), check its indexes",
+                        scan.operation(), scan.table(), scan.tableRows());
+                scans.add(scan);
+            }
+        }
+        return scans;
+    }
+
+    private static List<String> explain(Connection connection, Query query) throws SQLException {
+        try (PreparedStatement preparedStatement = connection.prepareStatement("EXPLAIN " + query.sql())) {
+            query.sample().bind(preparedStatement);
+            ResultSet resultSet = preparedStatement.executeQuery();
+            List<String> plan = new ArrayList<>();
+            while (resultSet.next()) {
+                plan.add(resultSet.getString(1));
+            }
+            return plan;
+        }
+    }
+
+    private static long rows(Connection connection, String table) throws SQLException {
+        try (PreparedStatement preparedStatement = connection.prepareStatement(TABLE_ROWS_SQL)) {
+            preparedStatement.setString(1, table);
+            ResultSet resultSet = preparedStatement.executeQuery();
+            return resultSet.next() ? resultSet.getLong(1) : 0;
+        }
+    }
+
+    public record SeqScan(String operation, String table, long tableRows) {
+    }
+
+    private record Query(String operation, String sql, StatementBinder sample) {
+    }
+}
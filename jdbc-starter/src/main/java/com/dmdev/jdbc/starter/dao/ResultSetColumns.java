@@ -0,0 +1,45 @@
+package com.dmdev.jdbc.starter.dao;
+
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Column labels of a result set resolved to their indexes once, so mappers can read every row
+ * by index. Labels are case-insensitive and the first occurrence wins, as in {@code findColumn}.
+ * {@link #withPrefix} gives a view for columns aliased with a common prefix in a join.
+ */
+public final class ResultSetColumns {
+
+    private final Map<String, Integer> indexes;
+    private final String prefix;
+
+    private ResultSetColumns(Map<String, Integer> indexes, String prefix) {
+        this.indexes = indexes;
+        this.prefix = prefix;
+    }
+
+    public static ResultSetColumns of(ResultSetMetaData metaData) throws SQLException {
+        int count = metaData.getColumnCount();
+        Map<String, Integer> indexes = new HashMap<>(count * 2);
+        for (int i = 1; i <= count; i++) {
+            indexes.putIfAbsent(metaData.getColumnLabel(i).toLowerCase(Locale.ROOT), i);
+        }
+        return new ResultSetColumns(indexes, "");
+    }
+
+    public ResultSetColumns withPrefix(String prefix) {
+        return new ResultSetColumns(indexes, this.prefix + prefix.toLowerCase(Locale.ROOT));
+    }
+
+    public int indexOf(String label) throws SQLException {
+        String key = prefix + label.toLowerCase(Locale.ROOT);
+        Integer index = indexes.get(key);
+        if (index == null) {
+            throw new SQLException("Column " + key + " is not in the result set");
+        }
+        return index;
+    }
+}
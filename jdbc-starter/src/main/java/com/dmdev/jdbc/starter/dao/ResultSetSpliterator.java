@@ -0,0 +1,134 @@
+package com.dmdev.jdbc.starter.dao;
+
+import com.dmdev.jdbc.starter.exception.DaoException;
+import com.dmdev.jdbc.starter.util.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+final class ResultSetSpliterator<T> extends Spliterators.AbstractSpliterator<T> {
+
+    private final Connection connection;
+    private final PreparedStatement preparedStatement;
+    private final ResultSet resultSet;
+    private final RowMapper<T> rowMapper;
+    private final boolean ownTransaction;
+    private final boolean autoCommit;
+    private boolean closed;
+
+    private ResultSetSpliterator(Connection connection,
+                                 PreparedStatement preparedStatement,
+                                 ResultSet resultSet,
+                                 RowMapper<T> rowMapper,
+                                 boolean ownTransaction,
+                                 boolean autoCommit) {
+        super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+        this.connection = connection;
+        this.preparedStatement = preparedStatement;
+        this.resultSet = resultSet;
+        this.rowMapper = rowMapper;
+        this.ownTransaction = ownTransaction;
+        this.autoCommit = autoCommit;
+    }
+
+    /**
+     * Streams the rows through a server-side cursor: autocommit is switched off so the driver honours
+     * the fetch size, and the connection is held until the stream is closed or exhausted. Inside a
+     * {@link TransactionTemplate} the cursor runs in the caller's transaction,
+     * which the stream neither commits nor rolls back.
+     */
+    static <T> Stream<T> stream(Connection connection,
+                                String sql,
+                                int fetchSize,
+                                StatementBinder binder,
+                                EntityMapper<T> mapper) {
+        PreparedStatement preparedStatement = null;
+        boolean ownTransaction = !TransactionTemplate.isActive();
+        boolean autoCommit = true;
+        try {
+            autoCommit = connection.getAutoCommit();
+            if (ownTransaction) {
+                connection.setAutoCommit(false);
+            }
+            preparedStatement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            preparedStatement.setFetchSize(fetchSize);
+            binder.bind(preparedStatement);
+            ResultSet resultSet = preparedStatement.executeQuery();
+
+            ResultSetSpliterator<T> spliterator =
+                    new ResultSetSpliterator<>(connection, preparedStatement, resultSet, mapper.bind(resultSet),
+                            ownTransaction, autoCommit);
+            return StreamSupport.stream(spliterator, false).onClose(spliterator::close);
+        } catch (SQLException e) {
+            closeQuietly(connection, preparedStatement, ownTransaction, autoCommit);
+            throw new DaoException(e);
+        }
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        if (closed) {
+            return false;
+        }
+        try {
+            if (!resultSet.next()) {
+                close();
+                return false;
+            }
+            action.accept(rowMapper.map(resultSet));
+            return true;
+        } catch (SQLException e) {
+            close();
+            throw new DaoException(e);
+        }
+    }
+
+    private void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            resultSet.close();
+        } catch (SQLException ignored) {
+        }
+        closeQuietly(connection, preparedStatement, ownTransaction, autoCommit);
+    }
+
+    private static void closeQuietly(Connection connection,
+                                     PreparedStatement preparedStatement,
+                                     boolean ownTransaction,
+                                     boolean autoCommit) {
+        try {
+            if (preparedStatement != null) {
+                preparedStatement.close();
+            }
+        } catch (SQLException ignored) {
+        }
+        if (ownTransaction) {
+            try {
+                connection.commit();
+            } catch (SQLException e) {
+                try {
+                    connection.rollback();
+                } catch (SQLException ignored) {
+                }
+            }
+            try {
+                connection.setAutoCommit(autoCommit);
+            } catch (SQLException ignored) {
+            }
+        }
+        try {
+            connection.close();
+        } catch (SQLException ignored) {
+        }
+    }
+}
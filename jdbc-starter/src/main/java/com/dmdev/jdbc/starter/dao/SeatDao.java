@@ -0,0 +1,78 @@
+package com.dmdev.jdbc.starter.dao;
+
+import com.dmdev.jdbc.starter.exception.DaoException;
+import com.dmdev.jdbc.starter.metrics.QueryMetrics;
+import com.dmdev.jdbc.starter.util.ConnectionPoolManager;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class SeatDao {
+
+    private static final SeatDao INSTANCE = new SeatDao();
+
+    private static final String FIND_ALL_BY_AIRCRAFT_ID_SQL = """
+            SELECT seat_no
+            FROM seat
+            WHERE aircraft_id = ?
+            ORDER BY seat_no
+            """;
+
+    private static final String FIND_TAKEN_BY_FLIGHT_ID_SQL = """
+            SELECT seat_no
+            FROM ticket
+            WHERE flight_id = ?
+            """;
+
+    private static final QueryMetrics FIND_ALL_BY_AIRCRAFT_ID_METRICS = QueryMetrics.of(SeatDao.class, "findAllByAircraftId");
+    private static final QueryMetrics FIND_TAKEN_BY_FLIGHT_ID_METRICS = QueryMetrics.of(SeatDao.class, "findTakenByFlightId");
+
+    static {
+        QueryPlanCheck.register(FIND_ALL_BY_AIRCRAFT_ID_METRICS.operation(), FIND_ALL_BY_AIRCRAFT_ID_SQL,
+                preparedStatement -> preparedStatement.setInt(1, 1));
+        QueryPlanCheck.register(FIND_TAKEN_BY_FLIGHT_ID_METRICS.operation(), FIND_TAKEN_BY_FLIGHT_ID_SQL,
+                preparedStatement -> preparedStatement.setLong(1, 1L));
+    }
+
+    private SeatDao() {
+    }
+
+    public static SeatDao getInstance() {
+        return INSTANCE;
+    }
+
+    public List<String> findAllByAircraftId(Integer aircraftId) {
+        return findSeatNos(FIND_ALL_BY_AIRCRAFT_ID_METRICS, FIND_ALL_BY_AIRCRAFT_ID_SQL, aircraftId);
+    }
+
+    /**
+     * Seats with a ticket on {@code flightId}, read from the primary: a replica may still show a
+     * just-sold seat as free.
+     */
+    public List<String> findTakenByFlightId(Long flightId) {
+        return findSeatNos(FIND_TAKEN_BY_FLIGHT_ID_METRICS, FIND_TAKEN_BY_FLIGHT_ID_SQL, flightId);
+    }
+
+    private static List<String> findSeatNos(QueryMetrics metrics, String sql, Object id) {
+        long startNanos = metrics.start();
+        try (Connection connection = ConnectionPoolManager.get();
+             PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+
+            preparedStatement.setObject(1, id);
+            ResultSet resultSet = preparedStatement.executeQuery();
+            List<String> seatNos = new ArrayList<>();
+            while (resultSet.next()) {
+                seatNos.add(resultSet.getString(1));
+            }
+            metrics.record(startNanos, seatNos.size());
+            return seatNos;
+        } catch (SQLException e) {
+            metrics.recordError(startNanos);
+            throw new DaoException(e);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.dmdev.jdbc.starter.dao;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+@FunctionalInterface
+public interface StatementBinder {
+
+    StatementBinder NONE = preparedStatement -> { };
+
+    void bind(PreparedStatement preparedStatement) throws SQLException;
+}
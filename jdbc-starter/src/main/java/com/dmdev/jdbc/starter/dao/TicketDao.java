@@ -1,17 +1,29 @@
 package com.dmdev.jdbc.starter.dao;
 
+import com.dmdev.jdbc.starter.dto.BatchResult;
+import com.dmdev.jdbc.starter.dto.BatchResult.BatchFailure;
+import com.dmdev.jdbc.starter.dto.Page;
+import com.dmdev.jdbc.starter.dto.TextMatch;
 import com.dmdev.jdbc.starter.dto.TicketFilter;
 import com.dmdev.jdbc.starter.entity.Flight;
 import com.dmdev.jdbc.starter.entity.Ticket;
 import com.dmdev.jdbc.starter.exception.DaoException;
+import com.dmdev.jdbc.starter.metrics.QueryMetrics;
 import com.dmdev.jdbc.starter.util.ConnectionPoolManager;
+import com.dmdev.jdbc.starter.util.PropertiesUtil;
+import com.dmdev.jdbc.starter.util.TransactionTemplate;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
-
-import static java.util.stream.Collectors.*;
+import java.util.Set;
+import java.util.stream.Stream;
 
 public class TicketDao implements Dao<Long, Ticket> {
 
@@ -21,7 +33,7 @@ public class TicketDao implements Dao<Long, Ticket> {
             """;
     private static final String SAVE_SQL = """
             INSERT INTO ticket (passenger_no, passenger_name, flight_id, seat_no, cost) 
-            VALUES (?, ?, ?, ?, ?);
+            VALUES (?, ?, ?, ?, ?)
             """;
     private static final String UPDATE_SQL = """
            UPDATE ticket 
@@ -30,7 +42,11 @@ public class TicketDao implements Dao<Long, Ticket> {
                flight_id = ?,
                seat_no = ?,
                cost = ?
-           WHERE id = ?;
+           WHERE id = ?
+            """;
+
+    private static final String DELETE_ALL_BY_ID_SQL = """
+            DELETE FROM ticket WHERE id = ANY(?) RETURNING id
             """;
 
     private static final String FIND_ALL_SQL = """
@@ -40,13 +56,14 @@ public class TicketDao implements Dao<Long, Ticket> {
                 flight_id, 
                 seat_no, 
                 cost,
-                f.status,
-                f.aircraft_id,
-                f.arrival_airport_code,
-                f.arrival_date,
-                f.departure_airport_code,
-                f.departure_date, 
-                f.flight_no
+                f.id AS f_id,
+                f.status AS f_status,
+                f.aircraft_id AS f_aircraft_id,
+                f.arrival_airport_code AS f_arrival_airport_code,
+                f.arrival_date AS f_arrival_date,
+                f.departure_airport_code AS f_departure_airport_code,
+                f.departure_date AS f_departure_date,
+                f.flight_no AS f_flight_no
             FROM ticket
             JOIN flight f 
             ON f.id = ticket.flight_id
@@ -56,6 +73,44 @@ public class TicketDao implements Dao<Long, Ticket> {
             WHERE ticket.id = ?;
             """;
 
+    private static final String FIND_ALL_WITHOUT_FLIGHT_SQL = """
+            SELECT id,
+                passenger_no,
+                passenger_name,
+                flight_id,
+                seat_no,
+                cost
+            FROM ticket
+            """;
+
+    private static final TicketFilterSql FIND_BY_FILTER_SQL = new TicketFilterSql(FIND_ALL_SQL,
+            " ORDER BY ticket.id LIMIT ? OFFSET ?");
+    private static final TicketFilterSql FIND_PAGE_SQL = new TicketFilterSql(FIND_ALL_SQL,
+            " ORDER BY ticket.id LIMIT ?");
+
+    private static final int DEFAULT_FETCH_SIZE = PropertiesUtil.getInt("db.fetch.size", 1000);
+    private static final int BATCH_SIZE = PropertiesUtil.getInt("db.batch.size", 500);
+
+    private static final QueryMetrics UPDATE_METRICS = QueryMetrics.of(TicketDao.class, "update");
+    private static final QueryMetrics FIND_BY_FILTER_METRICS = QueryMetrics.of(TicketDao.class, "findALl");
+    private static final QueryMetrics FIND_PAGE_METRICS = QueryMetrics.of(TicketDao.class, "findPage");
+    private static final QueryMetrics FIND_ALL_METRICS = QueryMetrics.of(TicketDao.class, "findAll");
+    private static final QueryMetrics FIND_BY_ID_METRICS = QueryMetrics.of(TicketDao.class, "findById");
+    private static final QueryMetrics SAVE_METRICS = QueryMetrics.of(TicketDao.class, "save");
+    private static final QueryMetrics DELETE_METRICS = QueryMetrics.of(TicketDao.class, "delete");
+    private static final QueryMetrics SAVE_ALL_METRICS = QueryMetrics.of(TicketDao.class, "saveAll");
+    private static final QueryMetrics UPDATE_ALL_METRICS = QueryMetrics.of(TicketDao.class, "updateAll");
+    private static final QueryMetrics DELETE_ALL_METRICS = QueryMetrics.of(TicketDao.class, "deleteAllById");
+
+    static {
+        QueryPlanCheck.register(FIND_BY_ID_METRICS.operation(), FIND_BY_ID_SQL,
+                preparedStatement -> preparedStatement.setLong(1, 1L));
+        QueryPlanCheck.register(DELETE_METRICS.operation(), DELETE_SQL,
+                preparedStatement -> preparedStatement.setLong(1, 1L));
+        registerPlanCheck("flightId", new TicketFilter(20, 0, null, null).withFlightId(1L));
+        registerPlanCheck("passengerName", new TicketFilter(20, 0, null, null).withPassengerName("Ivan", TextMatch.PREFIX));
+    }
+
     private final FlightDao flightDao = FlightDao.getInstance();
 
     private TicketDao() {
@@ -68,86 +123,198 @@ public class TicketDao implements Dao<Long, Ticket> {
     }
 
     public void update(Ticket ticket) {
+        long startNanos = UPDATE_METRICS.start();
         try(Connection connection = ConnectionPoolManager.get();
             PreparedStatement preparedStatement = connection.prepareStatement(UPDATE_SQL)) {
 
-            preparedStatement.setString(1, ticket.getPassengerNo());
-            preparedStatement.setString(2, ticket.getPassengerName());
-            preparedStatement.setLong(3, ticket.getFlight().id());
-            preparedStatement.setString(4, ticket.getSeatNo());
-            preparedStatement.setBigDecimal(5, ticket.getCost());
-            preparedStatement.setLong(6, ticket.getId());
+            bindUpdate(preparedStatement, ticket);
 
-            preparedStatement.executeUpdate();
+            UPDATE_METRICS.record(startNanos, preparedStatement.executeUpdate());
 
         } catch (SQLException throwables) {
+            UPDATE_METRICS.recordError(startNanos);
             throw  new DaoException(throwables);
         }
     }
 
     public List<Ticket> findALl(TicketFilter filter) {
+        long startNanos = FIND_BY_FILTER_METRICS.start();
 
-        List<Object> parametrs = new ArrayList<>();
-        List<String> whereSql = new ArrayList<>();
-        if (filter.seatNo() != null) {
-            whereSql.add("seat_no LIKE ?");
-            parametrs.add("%" + filter.seatNo() + "%");
-        }
-        if (filter.passengerName() != null) {
-            whereSql.add("passenger_name = ?");
-            parametrs.add(filter.passengerName());
+        TicketFilterSql.Template template = FIND_BY_FILTER_SQL.template(filter);
+
+        try (Connection connection = ConnectionPoolManager.getForRead();
+             PreparedStatement preparedStatement = connection.prepareStatement(template.sql())
+        ) {
+            bindFindAll(preparedStatement, template, filter);
+
+            ResultSet resultSet = preparedStatement.executeQuery();
+            List<Ticket> tickets = new ArrayList<>(filter.limit());
+            RowMapper<Ticket> ticketMapper = TicketMapper.WITH_FLIGHT.bind(resultSet);
+
+            while (resultSet.next()) {
+                tickets.add(ticketMapper.map(resultSet));
+            }
+            FIND_BY_FILTER_METRICS.record(startNanos, tickets.size());
+            return tickets;
+
+        } catch (SQLException e) {
+            FIND_BY_FILTER_METRICS.recordError(startNanos);
+            throw new DaoException(e);
         }
-        parametrs.add(filter.limit());
-        parametrs.add(filter.offset());
+    }
 
-        String where = whereSql.stream()
-                .collect(joining(" AND ", " WHERE ", " LIMIT ? OFFSET ? "));
+    public Page<Ticket> findPage(TicketFilter filter) {
+        long startNanos = FIND_PAGE_METRICS.start();
 
-        String sql = FIND_ALL_SQL + where;
+        TicketFilterSql.Template template = FIND_PAGE_SQL.template(filter);
 
-        try (Connection connection = ConnectionPoolManager.get();
-             PreparedStatement preparedStatement = connection.prepareStatement(sql)
+        try (Connection connection = ConnectionPoolManager.getForRead();
+             PreparedStatement preparedStatement = connection.prepareStatement(template.sql())
         ) {
-            for (int i = 0; i < parametrs.size(); i++) {
-                preparedStatement.setObject(i + 1, parametrs.get(i));
-            }
-            System.out.println(preparedStatement);
+            int index = template.bind(preparedStatement, filter);
+            preparedStatement.setInt(index, filter.limit() + 1);
 
             ResultSet resultSet = preparedStatement.executeQuery();
-            List<Ticket> tickets = new ArrayList<>();
+            List<Ticket> tickets = new ArrayList<>(filter.limit());
+            RowMapper<Ticket> ticketMapper = TicketMapper.WITH_FLIGHT.bind(resultSet);
 
+            boolean hasNext = false;
             while (resultSet.next()) {
-                tickets.add(buildTicket(resultSet));
+                if (tickets.size() == filter.limit()) {
+                    hasNext = true;
+                    break;
+                }
+                tickets.add(ticketMapper.map(resultSet));
             }
-            return tickets;
+            FIND_PAGE_METRICS.record(startNanos, tickets.size());
+
+            Long nextCursor = hasNext ? tickets.get(tickets.size() - 1).getId() : null;
+            return new Page<>(tickets, nextCursor);
+
+        } catch (SQLException e) {
+            FIND_PAGE_METRICS.recordError(startNanos);
+            throw new DaoException(e);
+        }
+    }
+
+    /**
+     * Passenger lookup by name; see {@link TextMatch} for the index each mode relies on.
+     */
+    public List<Ticket> findByPassengerName(String passengerName, TextMatch match, int limit) {
+        return findALl(new TicketFilter(limit, 0, null, null).withPassengerName(passengerName, match));
+    }
+
+    String findAllSql(TicketFilter filter) {
+        return FIND_BY_FILTER_SQL.template(filter).sql();
+    }
+
+    List<String> explainFindAll(TicketFilter filter) {
+        TicketFilterSql.Template template = FIND_BY_FILTER_SQL.template(filter);
+        try (Connection connection = ConnectionPoolManager.getForRead();
+             PreparedStatement preparedStatement = connection.prepareStatement("EXPLAIN " + template.sql())) {
+            bindFindAll(preparedStatement, template, filter);
 
+            ResultSet resultSet = preparedStatement.executeQuery();
+            List<String> plan = new ArrayList<>();
+            while (resultSet.next()) {
+                plan.add(resultSet.getString(1));
+            }
+            return plan;
         } catch (SQLException e) {
             throw new DaoException(e);
         }
     }
 
+    private static void bindFindAll(PreparedStatement preparedStatement, TicketFilterSql.Template template,
+                                    TicketFilter filter) throws SQLException {
+        int index = template.bind(preparedStatement, filter);
+        preparedStatement.setInt(index++, filter.limit());
+        preparedStatement.setInt(index, filter.offset());
+    }
+
+    private static void registerPlanCheck(String criteria, TicketFilter sample) {
+        TicketFilterSql.Template template = FIND_BY_FILTER_SQL.template(sample);
+        QueryPlanCheck.register(FIND_BY_FILTER_METRICS.operation() + "(" + criteria + ")", template.sql(),
+                preparedStatement -> bindFindAll(preparedStatement, template, sample));
+    }
+
     public List<Ticket> findAll() {
-        
+        return findAll(FlightFetchMode.JOIN);
+    }
+
+    public Stream<Ticket> streamAll() {
+        return streamAll(DEFAULT_FETCH_SIZE);
+    }
+
+    public Stream<Ticket> streamAll(int fetchSize) {
+        return ResultSetSpliterator.stream(ConnectionPoolManager.getForRead(), FIND_ALL_SQL, fetchSize, StatementBinder.NONE,
+                TicketMapper.STREAMING);
+    }
+
+    public List<Ticket> findAll(FlightFetchMode flightFetchMode) {
+        return flightFetchMode == FlightFetchMode.JOIN
+                ? findAllJoined()
+                : findAllWithBatchedFlights();
+    }
+
+    private List<Ticket> findAllJoined() {
+        long startNanos = FIND_ALL_METRICS.start();
+
         List<Ticket> tickets = new ArrayList<>();
 
-        try (Connection connection = ConnectionPoolManager.get();
+        try (Connection connection = ConnectionPoolManager.getForRead();
              PreparedStatement preparedStatement = connection.prepareStatement(FIND_ALL_SQL)
         ) {
 
             ResultSet resultSet = preparedStatement.executeQuery();
+            RowMapper<Ticket> ticketMapper = TicketMapper.WITH_FLIGHT.bind(resultSet);
             while (resultSet.next()) {
-                tickets.add(buildTicket(resultSet));
+                tickets.add(ticketMapper.map(resultSet));
             }
+            FIND_ALL_METRICS.record(startNanos, tickets.size());
             return tickets;
         } catch (SQLException e) {
+            FIND_ALL_METRICS.recordError(startNanos);
             throw new DaoException(e);
         }
     }
-    
+
+    private List<Ticket> findAllWithBatchedFlights() {
+        long startNanos = FIND_ALL_METRICS.start();
+
+        List<Ticket> tickets = new ArrayList<>();
+        List<Long> flightIds = new ArrayList<>();
+
+        try (Connection connection = ConnectionPoolManager.getForRead();
+             PreparedStatement preparedStatement = connection.prepareStatement(FIND_ALL_WITHOUT_FLIGHT_SQL)
+        ) {
+
+            ResultSet resultSet = preparedStatement.executeQuery();
+            RowMapper<Ticket> ticketMapper = TicketMapper.WITHOUT_FLIGHT.bind(resultSet);
+            int flightId = resultSet.findColumn("flight_id");
+            while (resultSet.next()) {
+                tickets.add(ticketMapper.map(resultSet));
+                flightIds.add(resultSet.getLong(flightId));
+            }
+
+            Set<Long> uniqueFlightIds = new LinkedHashSet<>(flightIds);
+            Map<Long, Flight> flights = flightDao.findAllByIds(uniqueFlightIds, connection);
+            for (int i = 0; i < tickets.size(); i++) {
+                tickets.get(i).setFlight(flights.get(flightIds.get(i)));
+            }
+            FIND_ALL_METRICS.record(startNanos, tickets.size());
+            return tickets;
+        } catch (SQLException e) {
+            FIND_ALL_METRICS.recordError(startNanos);
+            throw new DaoException(e);
+        }
+    }
+
     public Optional<Ticket> findById(Long id) {
+        long startNanos = FIND_BY_ID_METRICS.start();
         Ticket ticket = null;
 
-        try(Connection connection = ConnectionPoolManager.get();
+        try(Connection connection = ConnectionPoolManager.getForRead();
             PreparedStatement preparedStatement = connection.prepareStatement(FIND_BY_ID_SQL)) {
 
             preparedStatement.setLong(1, id);
@@ -155,74 +322,280 @@ public class TicketDao implements Dao<Long, Ticket> {
             ResultSet resultSet = preparedStatement.executeQuery();
 
             if (resultSet.next()) {
-                ticket = buildTicket(resultSet);
+                ticket = TicketMapper.WITH_FLIGHT.bind(resultSet).map(resultSet);
             }
 
+            FIND_BY_ID_METRICS.record(startNanos, ticket == null ? 0 : 1);
             return Optional.ofNullable(ticket);
 
         } catch (SQLException throwables) {
+            FIND_BY_ID_METRICS.recordError(startNanos);
             throw  new DaoException(throwables);
         }
     }
 
     public Ticket save(Ticket ticket) {
+        long startNanos = SAVE_METRICS.start();
         try(Connection connection = ConnectionPoolManager.get();
             PreparedStatement preparedStatement = connection.prepareStatement(SAVE_SQL, Statement.RETURN_GENERATED_KEYS)) {
 
-            preparedStatement.setString(1, ticket.getPassengerNo());
-            preparedStatement.setString(2, ticket.getPassengerName());
-            preparedStatement.setLong(3, ticket.getFlight().id());
-            preparedStatement.setString(4, ticket.getSeatNo());
-            preparedStatement.setBigDecimal(5, ticket.getCost());
+            bindSave(preparedStatement, ticket);
 
-            preparedStatement.executeUpdate();
+            int rows = preparedStatement.executeUpdate();
             ResultSet generatedKeys = preparedStatement.getGeneratedKeys();
             if (generatedKeys.next()) {
                 ticket.setId(generatedKeys.getLong("id"));
             }
 
+            SAVE_METRICS.record(startNanos, rows);
             return ticket;
 
         } catch (SQLException throwables) {
+            SAVE_METRICS.recordError(startNanos);
             throw  new DaoException(throwables);
         }
     }
 
     public boolean delete(Long id) {
+        long startNanos = DELETE_METRICS.start();
         try(Connection connection = ConnectionPoolManager.get();
             PreparedStatement preparedStatement = connection.prepareStatement(DELETE_SQL)) {
 
             preparedStatement.setLong(1, id);
-            return preparedStatement.executeUpdate() > 0;
+            int rows = preparedStatement.executeUpdate();
+            DELETE_METRICS.record(startNanos, rows);
+            return rows > 0;
 
         } catch (SQLException throwables) {
+            DELETE_METRICS.recordError(startNanos);
             throw  new DaoException(throwables);
         }
     }
 
-    private Ticket buildTicket(ResultSet resultSet) throws SQLException {
+    @Override
+    public BatchResult<Long> saveAll(List<Ticket> tickets) {
+        return executeBatch(tickets, SAVE_SQL, true, TicketDao::bindSave, SAVE_ALL_METRICS);
+    }
 
-        Flight flight = new Flight(
-                resultSet.getLong("flight_id"),
-                resultSet.getString("flight_no"),
-                resultSet.getTimestamp("departure_date").toLocalDateTime(),
-                resultSet.getString("departure_airport_code"),
-                resultSet.getTimestamp("arrival_date").toLocalDateTime(),
-                resultSet.getString("arrival_airport_code"),
-                resultSet.getInt("aircraft_id"),
-                resultSet.getString("status")
-        );
+    @Override
+    public BatchResult<Long> updateAll(List<Ticket> tickets) {
+        return executeBatch(tickets, UPDATE_SQL, false, TicketDao::bindUpdate, UPDATE_ALL_METRICS);
+    }
 
-        Ticket ticket = new Ticket();
+    @Override
+    public BatchResult<Long> deleteAllById(Collection<Long> ids) {
+        long startNanos = DELETE_ALL_METRICS.start();
+        List<Long> idList = new ArrayList<>(ids);
+        List<Long> keys = new ArrayList<>(idList.size());
+        List<BatchFailure> failures = new ArrayList<>();
 
-        ticket.setId(resultSet.getLong("id"));
-        ticket.setPassengerNo(resultSet.getString("passenger_no"));
-        ticket.setPassengerName(resultSet.getString("passenger_name"));
-//        ticket.setFlight(flight);
-        ticket.setFlight(flightDao.findById(resultSet.getLong("flight_id"),resultSet.getStatement().getConnection()).orElse(null));
-        ticket.setSeatNo(resultSet.getString("seat_no"));
-        ticket.setCost(resultSet.getBigDecimal("cost"));
-        return ticket;
+        try (Connection connection = ConnectionPoolManager.get();
+             PreparedStatement preparedStatement = connection.prepareStatement(DELETE_ALL_BY_ID_SQL)) {
+
+            for (int from = 0; from < idList.size(); from += BATCH_SIZE) {
+                List<Long> chunk = idList.subList(from, Math.min(from + BATCH_SIZE, idList.size()));
+                Savepoint savepoint = savepointInTransaction(connection);
+                try {
+                    preparedStatement.setArray(1, connection.createArrayOf("bigint", chunk.toArray()));
+
+                    Set<Long> deleted = new HashSet<>();
+                    ResultSet resultSet = preparedStatement.executeQuery();
+                    while (resultSet.next()) {
+                        deleted.add(resultSet.getLong("id"));
+                    }
+                    for (Long id : chunk) {
+                        keys.add(deleted.contains(id) ? id : null);
+                    }
+                } catch (SQLException e) {
+                    rollback(connection, savepoint);
+                    keys.addAll(deleteOneByOne(connection, chunk, from, failures));
+                }
+                release(connection, savepoint);
+            }
+
+            DELETE_ALL_METRICS.record(startNanos, keys.stream().filter(Objects::nonNull).count());
+            return new BatchResult<>(keys, failures);
+        } catch (SQLException e) {
+            DELETE_ALL_METRICS.recordError(startNanos);
+            throw new DaoException(e);
+        }
+    }
+
+    private List<Long> deleteOneByOne(Connection connection,
+                                      List<Long> chunk,
+                                      int offset,
+                                      List<BatchFailure> failures) throws SQLException {
+        List<Long> keys = new ArrayList<>(chunk.size());
+        try (PreparedStatement preparedStatement = connection.prepareStatement(DELETE_SQL)) {
+            for (int i = 0; i < chunk.size(); i++) {
+                Savepoint savepoint = savepointInTransaction(connection);
+                try {
+                    preparedStatement.setLong(1, chunk.get(i));
+                    keys.add(preparedStatement.executeUpdate() > 0 ? chunk.get(i) : null);
+                    release(connection, savepoint);
+                } catch (SQLException e) {
+                    rollback(connection, savepoint);
+                    keys.add(null);
+                    failures.add(new BatchFailure(offset + i, e));
+                }
+            }
+        }
+        return keys;
     }
 
+    private BatchResult<Long> executeBatch(List<Ticket> tickets,
+                                           String sql,
+                                           boolean generatedKeys,
+                                           TicketBinder binder,
+                                           QueryMetrics metrics) {
+        long startNanos = metrics.start();
+        List<Long> keys = new ArrayList<>(tickets.size());
+        List<BatchFailure> failures = new ArrayList<>();
+
+        try (Connection connection = ConnectionPoolManager.get()) {
+            // inside a transaction the caller commits; a failed chunk only rolls back to its savepoint
+            boolean ownTransaction = !TransactionTemplate.isActive();
+            boolean autoCommit = connection.getAutoCommit();
+            if (ownTransaction) {
+                connection.setAutoCommit(false);
+            }
+            try {
+                for (int from = 0; from < tickets.size(); from += BATCH_SIZE) {
+                    List<Ticket> chunk = tickets.subList(from, Math.min(from + BATCH_SIZE, tickets.size()));
+                    Savepoint savepoint = ownTransaction ? null : connection.setSavepoint();
+                    try {
+                        keys.addAll(executeChunk(connection, chunk, sql, generatedKeys, binder));
+                    } catch (BatchUpdateException e) {
+                        if (ownTransaction) {
+                            connection.rollback();
+                        } else {
+                            connection.rollback(savepoint);
+                        }
+                        keys.addAll(executeOneByOne(connection, chunk, from, sql, generatedKeys, binder, failures));
+                    }
+                    if (ownTransaction) {
+                        connection.commit();
+                    } else {
+                        connection.releaseSavepoint(savepoint);
+                    }
+                }
+            } catch (SQLException e) {
+                if (ownTransaction) {
+                    connection.rollback();
+                }
+                throw e;
+            } finally {
+                if (ownTransaction) {
+                    connection.setAutoCommit(autoCommit);
+                }
+            }
+
+            metrics.record(startNanos, tickets.size() - failures.size());
+            return new BatchResult<>(keys, failures);
+        } catch (SQLException e) {
+            metrics.recordError(startNanos);
+            throw new DaoException(e);
+        }
+    }
+
+    private List<Long> executeChunk(Connection connection,
+                                    List<Ticket> chunk,
+                                    String sql,
+                                    boolean generatedKeys,
+                                    TicketBinder binder) throws SQLException {
+        try (PreparedStatement preparedStatement = generatedKeys
+                ? connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)
+                : connection.prepareStatement(sql)) {
+
+            for (Ticket ticket : chunk) {
+                binder.bind(preparedStatement, ticket);
+                preparedStatement.addBatch();
+            }
+            int[] counts = preparedStatement.executeBatch();
+
+            if (generatedKeys) {
+                ResultSet resultSet = preparedStatement.getGeneratedKeys();
+                for (int i = 0; i < chunk.size() && resultSet.next(); i++) {
+                    chunk.get(i).setId(resultSet.getLong("id"));
+                }
+            }
+
+            List<Long> keys = new ArrayList<>(chunk.size());
+            for (int i = 0; i < chunk.size(); i++) {
+                keys.add(counts[i] == 0 ? null : chunk.get(i).getId());
+            }
+            return keys;
+        }
+    }
+
+    private List<Long> executeOneByOne(Connection connection,
+                                       List<Ticket> chunk,
+                                       int offset,
+                                       String sql,
+                                       boolean generatedKeys,
+                                       TicketBinder binder,
+                                       List<BatchFailure> failures) throws SQLException {
+        List<Long> keys = new ArrayList<>(chunk.size());
+        try (PreparedStatement preparedStatement = generatedKeys
+                ? connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)
+                : connection.prepareStatement(sql)) {
+
+            for (int i = 0; i < chunk.size(); i++) {
+                Ticket ticket = chunk.get(i);
+                Savepoint savepoint = connection.setSavepoint();
+                try {
+                    binder.bind(preparedStatement, ticket);
+                    int rows = preparedStatement.executeUpdate();
+                    if (generatedKeys) {
+                        ResultSet resultSet = preparedStatement.getGeneratedKeys();
+                        if (resultSet.next()) {
+                            ticket.setId(resultSet.getLong("id"));
+                        }
+                    }
+                    keys.add(rows == 0 ? null : ticket.getId());
+                    connection.releaseSavepoint(savepoint);
+                } catch (SQLException e) {
+                    connection.rollback(savepoint);
+                    keys.add(null);
+                    failures.add(new BatchFailure(offset + i, e));
+                }
+            }
+        }
+        return keys;
+    }
+
+    // outside a transaction every statement commits on its own and needs no savepoint
+    private static Savepoint savepointInTransaction(Connection connection) throws SQLException {
+        return TransactionTemplate.isActive() ? connection.setSavepoint() : null;
+    }
+
+    private static void rollback(Connection connection, Savepoint savepoint) throws SQLException {
+        if (savepoint != null) {
+            connection.rollback(savepoint);
+        }
+    }
+
+    private static void release(Connection connection, Savepoint savepoint) throws SQLException {
+        if (savepoint != null) {
+            connection.releaseSavepoint(savepoint);
+        }
+    }
+
+    private static void bindSave(PreparedStatement preparedStatement, Ticket ticket) throws SQLException {
+        preparedStatement.setString(1, ticket.getPassengerNo());
+        preparedStatement.setString(2, ticket.getPassengerName());
+        preparedStatement.setLong(3, ticket.getFlight().id());
+        preparedStatement.setString(4, ticket.getSeatNo());
+        preparedStatement.setBigDecimal(5, ticket.getCost());
+    }
+
+    private static void bindUpdate(PreparedStatement preparedStatement, Ticket ticket) throws SQLException {
+        bindSave(preparedStatement, ticket);
+        preparedStatement.setLong(6, ticket.getId());
+    }
+
+    @FunctionalInterface
+    private interface TicketBinder {
+        void bind(PreparedStatement preparedStatement, Ticket ticket) throws SQLException;
+    }
 }
@@ -0,0 +1,293 @@
+package com.dmdev.jdbc.starter.dao;
+
+import com.dmdev.jdbc.starter.dto.TextMatch;
+import com.dmdev.jdbc.starter.dto.TicketFilter;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * SQL for {@link TicketFilter} queries, compiled once per shape (the set of non-null predicates)
+ * into a template and the list of predicates to bind. Every call with the same shape gets the same
+ * SQL string, so the pooled statement cache and the server-side prepared statement are reused.
+ */
+final class TicketFilterSql {
+
+    private static final Predicate[] PREDICATES = Predicate.values();
+
+    private final String select;
+    private final String suffix;
+    private final AtomicReferenceArray<Template> templates = new AtomicReferenceArray<>(1 << PREDICATES.length);
+
+    TicketFilterSql(String select, String suffix) {
+        this.select = select;
+        this.suffix = suffix;
+    }
+
+    Template template(TicketFilter filter) {
+        int shape = 0;
+        for (Predicate predicate : PREDICATES) {
+            if (predicate.isPresent(filter)) {
+                shape |= 1 << predicate.ordinal();
+            }
+        }
+
+        Template template = templates.get(shape);
+        if (template == null) {
+            template = compile(shape);
+            templates.set(shape, template);
+        }
+        return template;
+    }
+
+    private Template compile(int shape) {
+        StringBuilder sql = new StringBuilder(select.stripTrailing());
+        List<Predicate> predicates = new ArrayList<>();
+        for (Predicate predicate : PREDICATES) {
+            if ((shape & 1 << predicate.ordinal()) != 0) {
+                sql.append(predicates.isEmpty() ? " WHERE " : " AND ").append(predicate.sql);
+                predicates.add(predicate);
+            }
+        }
+        sql.append(suffix);
+        return new Template(sql.toString(), predicates.toArray(Predicate[]::new));
+    }
+
+    record Template(String sql, Predicate[] predicates) {
+
+        /**
+         * Binds the filter predicates and returns the index of the next free parameter.
+         */
+        int bind(PreparedStatement preparedStatement, TicketFilter filter) throws SQLException {
+            int index = 1;
+            for (Predicate predicate : predicates) {
+                index = predicate.bind(preparedStatement, index, filter);
+            }
+            return index;
+        }
+    }
+
+    enum Predicate {
+        SEAT_NO_EXACT("seat_no = ?") {
+            @Override
+            boolean isPresent(TicketFilter filter) {
+                return filter.seatNo() != null && filter.seatNoMatch() == TextMatch.EXACT;
+            }
+
+            @Override
+            int bind(PreparedStatement preparedStatement, int index, TicketFilter filter) throws SQLException {
+                preparedStatement.setString(index, filter.seatNo());
+                return index + 1;
+            }
+        },
+        SEAT_NO_PREFIX("seat_no COLLATE \"C\" >= ? AND seat_no COLLATE \"C\" < ?") {
+            @Override
+            boolean isPresent(TicketFilter filter) {
+                return filter.seatNo() != null && filter.seatNoMatch() == TextMatch.PREFIX;
+            }
+
+            @Override
+            int bind(PreparedStatement preparedStatement, int index, TicketFilter filter) throws SQLException {
+                return bindPrefix(preparedStatement, index, filter.seatNo());
+            }
+        },
+        // case-sensitive, as seat numbers always were; the trigram index serves LIKE as well as ILIKE
+        SEAT_NO_CONTAINS("seat_no LIKE ?") {
+            @Override
+            boolean isPresent(TicketFilter filter) {
+                return filter.seatNo() != null && filter.seatNoMatch() == TextMatch.CONTAINS;
+            }
+
+            @Override
+            int bind(PreparedStatement preparedStatement, int index, TicketFilter filter) throws SQLException {
+                preparedStatement.setString(index, containsPattern(filter.seatNo()));
+                return index + 1;
+            }
+        },
+        SEAT_NO_FUZZY("seat_no % ?") {
+            @Override
+            boolean isPresent(TicketFilter filter) {
+                return filter.seatNo() != null && filter.seatNoMatch() == TextMatch.FUZZY;
+            }
+
+            @Override
+            int bind(PreparedStatement preparedStatement, int index, TicketFilter filter) throws SQLException {
+                preparedStatement.setString(index, filter.seatNo());
+                return index + 1;
+            }
+        },
+        PASSENGER_NAME_EXACT("passenger_name = ?") {
+            @Override
+            boolean isPresent(TicketFilter filter) {
+                return filter.passengerName() != null && filter.passengerNameMatch() == TextMatch.EXACT;
+            }
+
+            @Override
+            int bind(PreparedStatement preparedStatement, int index, TicketFilter filter) throws SQLException {
+                preparedStatement.setString(index, filter.passengerName());
+                return index + 1;
+            }
+        },
+        PASSENGER_NAME_PREFIX("passenger_name COLLATE \"C\" >= ? AND passenger_name COLLATE \"C\" < ?") {
+            @Override
+            boolean isPresent(TicketFilter filter) {
+                return filter.passengerName() != null && filter.passengerNameMatch() == TextMatch.PREFIX;
+            }
+
+            @Override
+            int bind(PreparedStatement preparedStatement, int index, TicketFilter filter) throws SQLException {
+                return bindPrefix(preparedStatement, index, filter.passengerName());
+            }
+        },
+        PASSENGER_NAME_CONTAINS("passenger_name ILIKE ?") {
+            @Override
+            boolean isPresent(TicketFilter filter) {
+                return filter.passengerName() != null && filter.passengerNameMatch() == TextMatch.CONTAINS;
+            }
+
+            @Override
+            int bind(PreparedStatement preparedStatement, int index, TicketFilter filter) throws SQLException {
+                preparedStatement.setString(index, containsPattern(filter.passengerName()));
+                return index + 1;
+            }
+        },
+        PASSENGER_NAME_FUZZY("passenger_name % ?") {
+            @Override
+            boolean isPresent(TicketFilter filter) {
+                return filter.passengerName() != null && filter.passengerNameMatch() == TextMatch.FUZZY;
+            }
+
+            @Override
+            int bind(PreparedStatement preparedStatement, int index, TicketFilter filter) throws SQLException {
+                preparedStatement.setString(index, filter.passengerName());
+                return index + 1;
+            }
+        },
+        FLIGHT_ID("ticket.flight_id = ?") {
+            @Override
+            boolean isPresent(TicketFilter filter) {
+                return filter.flightId() != null;
+            }
+
+            @Override
+            int bind(PreparedStatement preparedStatement, int index, TicketFilter filter) throws SQLException {
+                preparedStatement.setLong(index, filter.flightId());
+                return index + 1;
+            }
+        },
+        MIN_COST("cost >= ?") {
+            @Override
+            boolean isPresent(TicketFilter filter) {
+                return filter.minCost() != null;
+            }
+
+            @Override
+            int bind(PreparedStatement preparedStatement, int index, TicketFilter filter) throws SQLException {
+                preparedStatement.setBigDecimal(index, filter.minCost());
+                return index + 1;
+            }
+        },
+        MAX_COST("cost <= ?") {
+            @Override
+            boolean isPresent(TicketFilter filter) {
+                return filter.maxCost() != null;
+            }
+
+            @Override
+            int bind(PreparedStatement preparedStatement, int index, TicketFilter filter) throws SQLException {
+                preparedStatement.setBigDecimal(index, filter.maxCost());
+                return index + 1;
+            }
+        },
+        DEPARTURE_FROM("f.departure_date >= ?") {
+            @Override
+            boolean isPresent(TicketFilter filter) {
+                return filter.departureFrom() != null;
+            }
+
+            @Override
+            int bind(PreparedStatement preparedStatement, int index, TicketFilter filter) throws SQLException {
+                preparedStatement.setTimestamp(index, Timestamp.valueOf(filter.departureFrom()));
+                return index + 1;
+            }
+        },
+        DEPARTURE_TO("f.departure_date < ?") {
+            @Override
+            boolean isPresent(TicketFilter filter) {
+                return filter.departureTo() != null;
+            }
+
+            @Override
+            int bind(PreparedStatement preparedStatement, int index, TicketFilter filter) throws SQLException {
+                preparedStatement.setTimestamp(index, Timestamp.valueOf(filter.departureTo()));
+                return index + 1;
+            }
+        },
+        AFTER_ID("ticket.id > ?") {
+            @Override
+            boolean isPresent(TicketFilter filter) {
+                return filter.afterId() != null;
+            }
+
+            @Override
+            int bind(PreparedStatement preparedStatement, int index, TicketFilter filter) throws SQLException {
+                preparedStatement.setLong(index, filter.afterId());
+                return index + 1;
+            }
+        };
+
+        private final String sql;
+
+        Predicate(String sql) {
+            this.sql = sql;
+        }
+
+        abstract boolean isPresent(TicketFilter filter);
+
+        /**
+         * Binds the predicate parameters starting at {@code index} and returns the next free index.
+         */
+        abstract int bind(PreparedStatement preparedStatement, int index, TicketFilter filter) throws SQLException;
+
+        /**
+         * {@code [prefix, successor)} in byte order, which is what a {@code COLLATE "C"} B-tree
+         * index is sorted by; unlike {@code LIKE 'x%'} it needs no escaping and no text_pattern_ops.
+         */
+        private static int bindPrefix(PreparedStatement preparedStatement, int index, String prefix) throws SQLException {
+            preparedStatement.setString(index, prefix);
+            preparedStatement.setString(index + 1, successor(prefix));
+            return index + 2;
+        }
+
+        private static String successor(String prefix) {
+            int end = prefix.length();
+            while (end > 0) {
+                int last = prefix.codePointBefore(end);
+                int start = end - Character.charCount(last);
+                if (last != Character.MAX_CODE_POINT) {
+                    int next = last + 1 == Character.MIN_SURROGATE ? Character.MAX_SURROGATE + 1 : last + 1;
+                    return prefix.substring(0, start) + new String(Character.toChars(next));
+                }
+                end = start;
+            }
+            // U+10FFFF is a noncharacter, so closing the range there only misses values that contain it
+            return prefix + new String(Character.toChars(Character.MAX_CODE_POINT));
+        }
+
+        private static String containsPattern(String term) {
+            StringBuilder pattern = new StringBuilder(term.length() + 2).append('%');
+            for (int i = 0; i < term.length(); i++) {
+                char c = term.charAt(i);
+                if (c == '%' || c == '_' || c == '\\') {
+                    pattern.append('\\');
+                }
+                pattern.append(c);
+            }
+            return pattern.append('%').toString();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.dmdev.jdbc.starter.dao;
+
+import com.dmdev.jdbc.starter.entity.Flight;
+import com.dmdev.jdbc.starter.entity.Ticket;
+
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Maps ticket rows, optionally with the joined flight read from columns aliased with {@link #FLIGHT_PREFIX}.
+ * A bound mapper keeps an identity map, so tickets of the same flight share one {@link Flight}.
+ * {@link #STREAMING} bounds the map to the most recently used flights, as a stream may cover the whole table.
+ */
+final class TicketMapper implements EntityMapper<Ticket> {
+
+    static final String FLIGHT_PREFIX = "f_";
+    static final TicketMapper WITH_FLIGHT = new TicketMapper(true, Integer.MAX_VALUE);
+    static final TicketMapper WITHOUT_FLIGHT = new TicketMapper(false, 0);
+    static final TicketMapper STREAMING = new TicketMapper(true, 1_024);
+
+    private final boolean withFlight;
+    private final int maxFlights;
+
+    private TicketMapper(boolean withFlight, int maxFlights) {
+        this.withFlight = withFlight;
+        this.maxFlights = maxFlights;
+    }
+
+    @Override
+    public RowMapper<Ticket> bind(ResultSetColumns columns) throws SQLException {
+        int id = columns.indexOf("id");
+        int passengerNo = columns.indexOf("passenger_no");
+        int passengerName = columns.indexOf("passenger_name");
+        int seatNo = columns.indexOf("seat_no");
+        int cost = columns.indexOf("cost");
+
+        if (!withFlight) {
+            return resultSet -> new Ticket(
+                    resultSet.getLong(id),
+                    resultSet.getString(passengerNo),
+                    resultSet.getString(passengerName),
+                    null,
+                    resultSet.getString(seatNo),
+                    resultSet.getBigDecimal(cost)
+            );
+        }
+
+        int flightId = columns.indexOf("flight_id");
+        RowMapper<Flight> flightMapper = FlightMapper.INSTANCE.bind(columns.withPrefix(FLIGHT_PREFIX));
+        Map<Long, Flight> flights = maxFlights == Integer.MAX_VALUE
+                ? new HashMap<>()
+                : new LinkedHashMap<>(16, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<Long, Flight> eldest) {
+                        return size() > maxFlights;
+                    }
+                };
+
+        return resultSet -> {
+            Long flightKey = resultSet.getLong(flightId);
+            Flight flight = flights.get(flightKey);
+            if (flight == null) {
+                flight = flightMapper.map(resultSet);
+                flights.put(flightKey, flight);
+            }
+            return new Ticket(
+                    resultSet.getLong(id),
+                    resultSet.getString(passengerNo),
+                    resultSet.getString(passengerName),
+                    flight,
+                    resultSet.getString(seatNo),
+                    resultSet.getBigDecimal(cost)
+            );
+        };
+    }
+}
@@ -0,0 +1,193 @@
+package com.dmdev.jdbc.starter.dao;
+
+import com.dmdev.jdbc.starter.dto.BatchResult;
+import com.dmdev.jdbc.starter.dto.BatchResult.BatchFailure;
+import com.dmdev.jdbc.starter.entity.Ticket;
+import com.dmdev.jdbc.starter.exception.DaoException;
+import com.dmdev.jdbc.starter.metrics.Counter;
+import com.dmdev.jdbc.starter.metrics.MetricsRegistry;
+import com.dmdev.jdbc.starter.util.ConnectionPoolManager;
+import com.dmdev.jdbc.starter.util.PropertiesUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static java.lang.System.Logger.Level.WARNING;
+
+/**
+ * Opt-in write-behind inserts for tickets that can tolerate a few milliseconds of latency.
+ * Submitted tickets wait in a bounded queue; a single flusher thread takes up to
+ * {@code dao.ticket.write.behind.batch.size} of them, or whatever arrived within
+ * {@code dao.ticket.write.behind.max.delay.ms} of the first one, and inserts them with
+ * {@link TicketDao#saveAll(List)} in one transaction. Each future completes with the generated id,
+ * or exceptionally with the failure of its own row. When the queue is full {@link #submit} waits up
+ * to {@code dao.ticket.write.behind.submit.timeout.ms} and then rejects the ticket.
+ * <p>
+ * Futures are completed on the flusher thread, so dependent stages should use the async variants.
+ * Pending tickets are flushed by {@link ConnectionPoolManager#closePool()}.
+ */
+public final class TicketWriteBehind implements AutoCloseable {
+
+    private static final System.Logger LOGGER = System.getLogger(TicketWriteBehind.class.getName());
+    private static final TicketWriteBehind INSTANCE = new TicketWriteBehind(
+            TicketDao.getInstance(),
+            PropertiesUtil.getInt("dao.ticket.write.behind.queue.size", 10_000),
+            PropertiesUtil.getInt("dao.ticket.write.behind.batch.size", PropertiesUtil.getInt("db.batch.size", 500)),
+            PropertiesUtil.getLong("dao.ticket.write.behind.max.delay.ms", 10),
+            PropertiesUtil.getLong("dao.ticket.write.behind.submit.timeout.ms", 1000));
+    private static final long IDLE_POLL_MS = 100;
+
+    private final TicketDao ticketDao;
+    private final BlockingQueue<PendingTicket> queue;
+    private final int batchSize;
+    private final long maxDelayNanos;
+    private final long submitTimeoutMs;
+    private final Counter batches;
+    private final Counter rejected;
+    private final Thread flusher;
+    private volatile boolean closed;
+
+    private TicketWriteBehind(TicketDao ticketDao, int queueSize, int batchSize, long maxDelayMs, long submitTimeoutMs) {
+        this.ticketDao = ticketDao;
+        this.queue = new ArrayBlockingQueue<>(queueSize);
+        this.batchSize = batchSize;
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMs);
+        this.submitTimeoutMs = submitTimeoutMs;
+
+        MetricsRegistry registry = MetricsRegistry.getInstance();
+        this.batches = registry.counter("dao.ticket.writeBehind.batches");
+        this.rejected = registry.counter("dao.ticket.writeBehind.rejected");
+        registry.gauge("dao.ticket.writeBehind.queued", queue::size);
+
+        this.flusher = new Thread(this::run, "ticket-write-behind");
+        flusher.setDaemon(true);
+        flusher.start();
+        ConnectionPoolManager.beforeClose(this::close);
+    }
+
+    public static TicketWriteBehind getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Queues {@code ticket} for insertion; the future completes with its generated id.
+     */
+    public CompletableFuture<Long> submit(Ticket ticket) {
+        CompletableFuture<Long> future = new CompletableFuture<>();
+        if (closed) {
+            future.completeExceptionally(new RejectedExecutionException("Ticket write-behind is closed"));
+            return future;
+        }
+        PendingTicket pending = new PendingTicket(ticket, future);
+        try {
+            if (!queue.offer(pending, submitTimeoutMs, TimeUnit.MILLISECONDS)) {
+                rejected.increment();
+                future.completeExceptionally(new RejectedExecutionException(
+                        "Ticket write-behind queue is full (" + queue.size() + " pending)"));
+            } else if (closed && queue.remove(pending)) {
+                // close() may have drained the queue for the last time before the offer
+                future.completeExceptionally(new RejectedExecutionException("Ticket write-behind is closed"));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Stops accepting tickets and flushes the ones already queued.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // tickets that slipped in while the flusher was exiting
+        List<PendingTicket> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        for (int from = 0; from < rest.size(); from += batchSize) {
+            flush(rest.subList(from, Math.min(from + batchSize, rest.size())));
+        }
+    }
+
+    private void run() {
+        List<PendingTicket> batch = new ArrayList<>(batchSize);
+        while (!closed || !queue.isEmpty()) {
+            try {
+                PendingTicket first = queue.poll(IDLE_POLL_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + maxDelayNanos;
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0 || closed) {
+                        break;
+                    }
+                    PendingTicket next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                flush(batch);
+                return;
+            } catch (RuntimeException e) {
+                LOGGER.log(WARNING, "Ticket write-behind flush failed", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<PendingTicket> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<Ticket> tickets = new ArrayList<>(batch.size());
+        for (PendingTicket pending : batch) {
+            tickets.add(pending.ticket());
+        }
+
+        BatchResult<Long> result;
+        try {
+            result = ticketDao.saveAll(tickets);
+            batches.increment();
+        } catch (RuntimeException e) {
+            for (PendingTicket pending : batch) {
+                pending.future().completeExceptionally(e);
+            }
+            return;
+        }
+
+        Exception[] causes = new Exception[batch.size()];
+        for (BatchFailure failure : result.failures()) {
+            causes[failure.index()] = failure.cause();
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            CompletableFuture<Long> future = batch.get(i).future();
+            if (causes[i] != null) {
+                future.completeExceptionally(new DaoException(causes[i]));
+            } else {
+                future.complete(result.keys().get(i));
+            }
+        }
+    }
+
+    private record PendingTicket(Ticket ticket, CompletableFuture<Long> future) {
+    }
+}
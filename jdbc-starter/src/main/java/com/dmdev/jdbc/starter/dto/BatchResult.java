@@ -0,0 +1,15 @@
+package com.dmdev.jdbc.starter.dto;
+
+import java.util.List;
+
+public record BatchResult<K>(List<K> keys,
+                             List<BatchFailure> failures) {
+
+    public boolean isSuccessful() {
+        return failures.isEmpty();
+    }
+
+    public record BatchFailure(int index,
+                               Exception cause) {
+    }
+}
@@ -0,0 +1,18 @@
+package com.dmdev.jdbc.starter.dto;
+
+import java.time.Duration;
+
+public record BulkResult(long rows,
+                         Duration elapsed) {
+
+    public double rowsPerSecond() {
+        long nanos = elapsed.toNanos();
+        return nanos == 0 ? 0 : rows * 1_000_000_000d / nanos;
+    }
+
+    @Override
+    public String toString() {
+        return "BulkResult{rows=" + rows + ", elapsed=" + elapsed.toMillis() + " ms, rowsPerSecond="
+               + Math.round(rowsPerSecond()) + "}";
+    }
+}
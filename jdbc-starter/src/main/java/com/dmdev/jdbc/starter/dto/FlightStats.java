@@ -0,0 +1,12 @@
+package com.dmdev.jdbc.starter.dto;
+
+import java.math.BigDecimal;
+
+public record FlightStats(Long flightId,
+                          int seatsSold,
+                          BigDecimal revenue) {
+
+    public static FlightStats empty(Long flightId) {
+        return new FlightStats(flightId, 0, BigDecimal.ZERO);
+    }
+}
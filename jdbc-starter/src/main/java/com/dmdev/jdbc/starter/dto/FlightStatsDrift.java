@@ -0,0 +1,5 @@
+package com.dmdev.jdbc.starter.dto;
+
+public record FlightStatsDrift(FlightStats recorded,
+                               FlightStats actual) {
+}
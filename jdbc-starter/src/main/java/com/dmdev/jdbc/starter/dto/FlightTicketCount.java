@@ -0,0 +1,7 @@
+package com.dmdev.jdbc.starter.dto;
+
+import com.dmdev.jdbc.starter.entity.Flight;
+
+public record FlightTicketCount(Flight flight,
+                                long tickets) {
+}
@@ -0,0 +1,11 @@
+package com.dmdev.jdbc.starter.dto;
+
+import java.util.List;
+
+public record Page<T>(List<T> content,
+                      Long nextCursor) {
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+}
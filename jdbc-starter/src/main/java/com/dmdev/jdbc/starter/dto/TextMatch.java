@@ -0,0 +1,30 @@
+package com.dmdev.jdbc.starter.dto;
+
+/**
+ * How a text criterion of {@link TicketFilter} matches a column. Each mode compiles to a predicate
+ * that the indexes from {@code db/migration/V1__ticket_search_indexes.sql} can serve.
+ */
+public enum TextMatch {
+
+    /**
+     * Equality, served by a B-tree index.
+     */
+    EXACT,
+
+    /**
+     * Starts with the term, compiled to a {@code COLLATE "C"} range served by a B-tree index.
+     */
+    PREFIX,
+
+    /**
+     * Contains the term, served by a trigram GIN index for terms of three or more characters; shorter
+     * terms are still matched as substrings, by a scan. Passenger names match case-insensitively,
+     * seat numbers case-sensitively.
+     */
+    CONTAINS,
+
+    /**
+     * Trigram similarity above {@code pg_trgm.similarity_threshold}, tolerant to typos.
+     */
+    FUZZY
+}
@@ -1,7 +1,78 @@
 package com.dmdev.jdbc.starter.dto;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
 public record TicketFilter(int limit,
                            int offset,
                            String passengerName,
-                           String seatNo) {
+                           String seatNo,
+                           Long afterId,
+                           Long flightId,
+                           BigDecimal minCost,
+                           BigDecimal maxCost,
+                           LocalDateTime departureFrom,
+                           LocalDateTime departureTo,
+                           TextMatch passengerNameMatch,
+                           TextMatch seatNoMatch) {
+
+    public TicketFilter {
+        if (passengerNameMatch == null) {
+            passengerNameMatch = TextMatch.EXACT;
+        }
+        if (seatNoMatch == null) {
+            seatNoMatch = TextMatch.CONTAINS;
+        }
+    }
+
+    public TicketFilter(int limit, int offset, String passengerName, String seatNo) {
+        this(limit, offset, passengerName, seatNo, null);
+    }
+
+    public TicketFilter(int limit, int offset, String passengerName, String seatNo, Long afterId) {
+        this(limit, offset, passengerName, seatNo, afterId, null, null, null, null, null, null, null);
+    }
+
+    public static TicketFilter firstPage(int limit, String passengerName, String seatNo) {
+        return new TicketFilter(limit, 0, passengerName, seatNo, null);
+    }
+
+    public TicketFilter next(Page<?> page) {
+        return new TicketFilter(limit, 0, passengerName, seatNo, page.nextCursor(),
+                flightId, minCost, maxCost, departureFrom, departureTo, passengerNameMatch, seatNoMatch);
+    }
+
+    public TicketFilter withFlightId(Long flightId) {
+        return new TicketFilter(limit, offset, passengerName, seatNo, afterId,
+                flightId, minCost, maxCost, departureFrom, departureTo, passengerNameMatch, seatNoMatch);
+    }
+
+    public TicketFilter withCost(BigDecimal minCost, BigDecimal maxCost) {
+        return new TicketFilter(limit, offset, passengerName, seatNo, afterId,
+                flightId, minCost, maxCost, departureFrom, departureTo, passengerNameMatch, seatNoMatch);
+    }
+
+    /**
+     * Departure window, {@code from} inclusive and {@code to} exclusive; either end may be {@code null}.
+     */
+    public TicketFilter withDeparture(LocalDateTime departureFrom, LocalDateTime departureTo) {
+        return new TicketFilter(limit, offset, passengerName, seatNo, afterId,
+                flightId, minCost, maxCost, departureFrom, departureTo, passengerNameMatch, seatNoMatch);
+    }
+
+    /**
+     * Passenger name criterion; matched exactly unless another mode is given.
+     */
+    public TicketFilter withPassengerName(String passengerName, TextMatch match) {
+        return new TicketFilter(limit, offset, passengerName, seatNo, afterId,
+                flightId, minCost, maxCost, departureFrom, departureTo, match, seatNoMatch);
+    }
+
+    /**
+     * Seat criterion; matched as a substring unless another mode is given.
+     */
+    public TicketFilter withSeatNo(String seatNo, TextMatch match) {
+        return new TicketFilter(limit, offset, passengerName, seatNo, afterId,
+                flightId, minCost, maxCost, departureFrom, departureTo, passengerNameMatch, match);
+    }
 }
@@ -0,0 +1,12 @@
+package com.dmdev.jdbc.starter.exception;
+
+public class ConnectionPoolException extends RuntimeException {
+
+    public ConnectionPoolException(String message) {
+        super(message);
+    }
+
+    public ConnectionPoolException(String message, Throwable throwable) {
+        super(message, throwable);
+    }
+}
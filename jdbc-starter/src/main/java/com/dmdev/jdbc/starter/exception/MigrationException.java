@@ -0,0 +1,12 @@
+package com.dmdev.jdbc.starter.exception;
+
+public class MigrationException extends RuntimeException {
+
+    public MigrationException(String message) {
+        super(message);
+    }
+
+    public MigrationException(String message, Throwable throwable) {
+        super(message, throwable);
+    }
+}
@@ -0,0 +1,22 @@
+package com.dmdev.jdbc.starter.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.dmdev.jdbc.ConnectionAcquire")
+@Label("Connection Acquire")
+@Description("A borrower had to wait for a pooled connection")
+@Category({"JDBC", "Connection Pool"})
+@StackTrace(false)
+public class ConnectionAcquireEvent extends Event {
+
+    @Label("Pool")
+    public String pool;
+
+    @Label("Timed Out")
+    public boolean timedOut;
+}
@@ -0,0 +1,35 @@
+package com.dmdev.jdbc.starter.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+public final class Counter implements Metric {
+
+    private final String name;
+    private final LongAdder count = new LongAdder();
+
+    Counter(String name) {
+        this.name = name;
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    public void increment() {
+        count.increment();
+    }
+
+    public void add(long value) {
+        count.add(value);
+    }
+
+    public long count() {
+        return count.sum();
+    }
+
+    @Override
+    public String toString() {
+        return name + "{count=" + count() + "}";
+    }
+}
@@ -0,0 +1,28 @@
+package com.dmdev.jdbc.starter.metrics;
+
+import java.util.function.LongSupplier;
+
+public final class Gauge implements Metric {
+
+    private final String name;
+    private final LongSupplier supplier;
+
+    Gauge(String name, LongSupplier supplier) {
+        this.name = name;
+        this.supplier = supplier;
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    public long value() {
+        return supplier.getAsLong();
+    }
+
+    @Override
+    public String toString() {
+        return name + "{value=" + value() + "}";
+    }
+}
@@ -0,0 +1,6 @@
+package com.dmdev.jdbc.starter.metrics;
+
+public interface Metric {
+
+    String name();
+}
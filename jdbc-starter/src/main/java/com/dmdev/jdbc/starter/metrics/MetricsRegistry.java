@@ -0,0 +1,67 @@
+package com.dmdev.jdbc.starter.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.LongSupplier;
+
+public final class MetricsRegistry {
+
+    private static final MetricsRegistry INSTANCE = new MetricsRegistry();
+
+    private final ConcurrentSkipListMap<String, Metric> metrics = new ConcurrentSkipListMap<>();
+
+    private MetricsRegistry() {
+    }
+
+    public static MetricsRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    public Counter counter(String name) {
+        return register(name, Counter.class, new Counter(name));
+    }
+
+    public Timer timer(String name) {
+        return register(name, Timer.class, new Timer(name));
+    }
+
+    public Gauge gauge(String name, LongSupplier supplier) {
+        Gauge gauge = new Gauge(name, supplier);
+        metrics.put(name, gauge);
+        return gauge;
+    }
+
+    public Metric get(String name) {
+        return metrics.get(name);
+    }
+
+    public SortedMap<String, Metric> metrics() {
+        return Collections.unmodifiableSortedMap(metrics);
+    }
+
+    public void remove(String name) {
+        metrics.remove(name);
+    }
+
+    private <T extends Metric> T register(String name, Class<T> type, T metric) {
+        Metric existing = metrics.putIfAbsent(name, metric);
+        if (existing == null) {
+            return metric;
+        }
+        if (!type.isInstance(existing)) {
+            throw new IllegalArgumentException("Metric " + name + " is already registered as " + existing.getClass().getSimpleName());
+        }
+        return type.cast(existing);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        for (Map.Entry<String, Metric> entry : metrics.entrySet()) {
+            builder.append(entry.getValue()).append(System.lineSeparator());
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,30 @@
+package com.dmdev.jdbc.starter.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+@Name("com.dmdev.jdbc.Query")
+@Label("DAO Query")
+@Description("A DAO method call with its latency and mapped row count")
+@Category({"JDBC", "DAO"})
+@StackTrace(false)
+public class QueryEvent extends Event {
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("Latency")
+    @Timespan(Timespan.NANOSECONDS)
+    public long latency;
+
+    @Label("Rows")
+    public long rows;
+
+    @Label("Failed")
+    public boolean failed;
+}
@@ -0,0 +1,62 @@
+package com.dmdev.jdbc.starter.metrics;
+
+import com.dmdev.jdbc.starter.trace.QueryTracer;
+import jdk.jfr.EventType;
+
+public final class QueryMetrics {
+
+    private static final EventType QUERY_EVENT_TYPE = EventType.getEventType(QueryEvent.class);
+
+    private final String operation;
+    private final Timer latency;
+    private final Counter rows;
+    private final Counter errors;
+
+    private QueryMetrics(String operation) {
+        MetricsRegistry registry = MetricsRegistry.getInstance();
+        this.operation = operation;
+        this.latency = registry.timer("dao." + operation + ".latency");
+        this.rows = registry.counter("dao." + operation + ".rows");
+        this.errors = registry.counter("dao." + operation + ".errors");
+    }
+
+    public static QueryMetrics of(Class<?> dao, String method) {
+        return new QueryMetrics(dao.getSimpleName() + "." + method);
+    }
+
+    public String operation() {
+        return operation;
+    }
+
+    public long start() {
+        QueryTracer.enter(operation);
+        return System.nanoTime();
+    }
+
+    public void record(long startNanos, long mappedRows) {
+        long elapsed = System.nanoTime() - startNanos;
+        QueryTracer.exit();
+        latency.record(elapsed);
+        rows.add(mappedRows);
+        emit(elapsed, mappedRows, false);
+    }
+
+    public void recordError(long startNanos) {
+        long elapsed = System.nanoTime() - startNanos;
+        QueryTracer.exit();
+        latency.record(elapsed);
+        errors.increment();
+        emit(elapsed, 0, true);
+    }
+
+    private void emit(long elapsed, long mappedRows, boolean failed) {
+        if (QUERY_EVENT_TYPE.isEnabled()) {
+            QueryEvent event = new QueryEvent();
+            event.operation = operation;
+            event.latency = elapsed;
+            event.rows = mappedRows;
+            event.failed = failed;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.dmdev.jdbc.starter.seat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Taken seats of one flight, one bit per {@link SeatLayout} position. Reservations flip a bit with
+ * compare-and-set, so two threads can never both reserve the same seat in memory.
+ */
+final class FlightSeats {
+
+    private final SeatLayout layout;
+    private final AtomicLongArray taken;
+
+    FlightSeats(SeatLayout layout) {
+        this.layout = layout;
+        this.taken = new AtomicLongArray((layout.size() + Long.SIZE - 1) / Long.SIZE);
+    }
+
+    SeatLayout layout() {
+        return layout;
+    }
+
+    boolean isTaken(int seat) {
+        return (taken.get(seat / Long.SIZE) & (1L << seat)) != 0;
+    }
+
+    /**
+     * Marks {@code seat} taken; {@code false} when it already was.
+     */
+    boolean reserve(int seat) {
+        int word = seat / Long.SIZE;
+        long bit = 1L << seat;
+        long current;
+        do {
+            current = taken.get(word);
+            if ((current & bit) != 0) {
+                return false;
+            }
+        } while (!taken.compareAndSet(word, current, current | bit));
+        return true;
+    }
+
+    void release(int seat) {
+        long bit = 1L << seat;
+        taken.getAndUpdate(seat / Long.SIZE, current -> current & ~bit);
+    }
+
+    List<String> freeSeats() {
+        List<String> free = new ArrayList<>();
+        for (int word = 0; word < taken.length(); word++) {
+            long freeBits = ~taken.get(word);
+            while (freeBits != 0) {
+                int seat = word * Long.SIZE + Long.numberOfTrailingZeros(freeBits);
+                if (seat >= layout.size()) {
+                    break;
+                }
+                free.add(layout.seatNo(seat));
+                freeBits &= freeBits - 1;
+            }
+        }
+        return free;
+    }
+}
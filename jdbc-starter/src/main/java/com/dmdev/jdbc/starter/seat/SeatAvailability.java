@@ -0,0 +1,174 @@
+package com.dmdev.jdbc.starter.seat;
+
+import com.dmdev.jdbc.starter.cache.ReadThroughCache;
+import com.dmdev.jdbc.starter.dao.FlightDao;
+import com.dmdev.jdbc.starter.dao.SeatDao;
+import com.dmdev.jdbc.starter.dao.TicketDao;
+import com.dmdev.jdbc.starter.entity.Flight;
+import com.dmdev.jdbc.starter.entity.Ticket;
+import com.dmdev.jdbc.starter.exception.DaoException;
+import com.dmdev.jdbc.starter.metrics.Counter;
+import com.dmdev.jdbc.starter.metrics.MetricsRegistry;
+import com.dmdev.jdbc.starter.util.PropertiesUtil;
+import com.dmdev.jdbc.starter.util.Propagation;
+import com.dmdev.jdbc.starter.util.TransactionTemplate;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Seat maps of flights held in memory as bitsets, so "free seats" and "is seat X free" do not reach
+ * the database. A flight's map is loaded on first use from {@code seat} (per aircraft) and its tickets,
+ * and reloaded after {@code seat.availability.refresh.ms} to pick up tickets written elsewhere.
+ * <p>
+ * {@link #book} reserves the seat in memory with compare-and-set before inserting the ticket, so
+ * concurrent bookings of one seat in this process fail without a round trip. The unique index on
+ * {@code (flight_id, seat_no)} stays the arbiter: when the insert hits it, the seat was sold by another
+ * instance or outside this class, and the flight's map is reloaded.
+ */
+public final class SeatAvailability {
+
+    private static final SeatAvailability INSTANCE = new SeatAvailability();
+    private static final String UNIQUE_VIOLATION = "23505";
+    // a failed insert would otherwise abort the caller's transaction
+    private static final TransactionTemplate NESTED = TransactionTemplate.of(Propagation.NESTED);
+
+    private final SeatDao seatDao = SeatDao.getInstance();
+    private final FlightDao flightDao = FlightDao.getInstance();
+    private final TicketDao ticketDao = TicketDao.getInstance();
+    private final ReadThroughCache<Integer, SeatLayout> layouts;
+    private final ReadThroughCache<Long, FlightSeats> flights;
+    private final Counter booked;
+    private final Counter rejected;
+    private final Counter conflicts;
+
+    private SeatAvailability() {
+        this.layouts = new ReadThroughCache<>("seatLayouts",
+                PropertiesUtil.getInt("seat.availability.layout.cache.size", 1_000),
+                Duration.ofMillis(PropertiesUtil.getLong("seat.availability.layout.ttl.ms", 3_600_000)),
+                aircraftId -> new SeatLayout(seatDao.findAllByAircraftId(aircraftId)));
+        this.flights = new ReadThroughCache<>("flightSeats",
+                PropertiesUtil.getInt("seat.availability.cache.size", 10_000),
+                Duration.ofMillis(PropertiesUtil.getLong("seat.availability.refresh.ms", 5_000)),
+                this::load);
+
+        MetricsRegistry registry = MetricsRegistry.getInstance();
+        this.booked = registry.counter("seat.booked");
+        this.rejected = registry.counter("seat.rejected");
+        this.conflicts = registry.counter("seat.conflicts");
+    }
+
+    public static SeatAvailability getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Free seats of the flight in seat order; empty when there is no such flight.
+     */
+    public List<String> freeSeats(Long flightId) {
+        FlightSeats seats = flights.get(flightId);
+        return seats == null ? List.of() : seats.freeSeats();
+    }
+
+    public boolean isFree(Long flightId, String seatNo) {
+        FlightSeats seats = flights.get(flightId);
+        if (seats == null) {
+            return false;
+        }
+        int seat = seats.layout().indexOf(seatNo);
+        return seat >= 0 && !seats.isTaken(seat);
+    }
+
+    /**
+     * Saves {@code ticket} if its seat is free, or returns an empty result when the seat is taken.
+     * Inside a transaction the insert runs behind a savepoint, so a seat taken in the database leaves
+     * the transaction usable, and the flight's map is reloaded once it completes, so a rollback frees
+     * the seat again.
+     */
+    public Optional<Ticket> book(Ticket ticket) {
+        Long flightId = ticket.getFlight().id();
+        FlightSeats seats = flights.get(flightId);
+        if (seats == null) {
+            throw new IllegalArgumentException("No flight " + flightId);
+        }
+        int seat = seats.layout().indexOf(ticket.getSeatNo());
+        if (seat < 0) {
+            throw new IllegalArgumentException("Flight " + flightId + " has no seat " + ticket.getSeatNo());
+        }
+        if (!seats.reserve(seat)) {
+            rejected.increment();
+            return Optional.empty();
+        }
+
+        try {
+            Ticket saved = TransactionTemplate.isActive()
+                    ? NESTED.execute(connection -> ticketDao.save(ticket))
+                    : ticketDao.save(ticket);
+            booked.increment();
+            reloadAfterTransaction(flightId);
+            return Optional.of(saved);
+        } catch (DaoException e) {
+            if (!isUniqueViolation(e)) {
+                seats.release(seat);
+                throw e;
+            }
+            conflicts.increment();
+            flights.invalidate(flightId);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Deletes {@code ticket} and frees its seat.
+     */
+    public boolean cancel(Ticket ticket) {
+        Long flightId = ticket.getFlight().id();
+        boolean deleted = ticketDao.delete(ticket.getId());
+        if (deleted) {
+            FlightSeats seats = flights.getIfPresent(flightId);
+            int seat = seats == null ? -1 : seats.layout().indexOf(ticket.getSeatNo());
+            if (seat >= 0) {
+                seats.release(seat);
+            }
+            reloadAfterTransaction(flightId);
+        }
+        return deleted;
+    }
+
+    /**
+     * Drops the flight's map, for example after its tickets were changed through {@link TicketDao}
+     * directly; the next call reloads it.
+     */
+    public void invalidate(Long flightId) {
+        flights.invalidate(flightId);
+    }
+
+    // the caller's transaction may still roll the change back
+    private void reloadAfterTransaction(Long flightId) {
+        if (TransactionTemplate.isActive()) {
+            TransactionTemplate.afterCompletion(() -> flights.invalidate(flightId));
+        }
+    }
+
+    private FlightSeats load(Long flightId) {
+        Flight flight = flightDao.findById(flightId).orElse(null);
+        if (flight == null) {
+            return null;
+        }
+        FlightSeats seats = new FlightSeats(layouts.get(flight.aircraftId()));
+        for (String seatNo : seatDao.findTakenByFlightId(flightId)) {
+            int seat = seats.layout().indexOf(seatNo);
+            if (seat >= 0) {
+                seats.reserve(seat);
+            }
+        }
+        return seats;
+    }
+
+    private static boolean isUniqueViolation(DaoException e) {
+        return e.getCause() instanceof SQLException sqlException
+               && UNIQUE_VIOLATION.equals(sqlException.getSQLState());
+    }
+}
@@ -0,0 +1,37 @@
+package com.dmdev.jdbc.starter.seat;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Seats of one aircraft, numbered by their position in {@code seatNos}; shared by all its flights.
+ */
+final class SeatLayout {
+
+    private final String[] seatNos;
+    private final Map<String, Integer> indexes;
+
+    SeatLayout(List<String> seatNos) {
+        this.seatNos = seatNos.toArray(String[]::new);
+        this.indexes = new HashMap<>(seatNos.size() * 2);
+        for (int i = 0; i < this.seatNos.length; i++) {
+            indexes.put(this.seatNos[i], i);
+        }
+    }
+
+    int size() {
+        return seatNos.length;
+    }
+
+    /**
+     * Position of {@code seatNo}, or {@code -1} when the aircraft has no such seat.
+     */
+    int indexOf(String seatNo) {
+        return indexes.getOrDefault(seatNo, -1);
+    }
+
+    String seatNo(int index) {
+        return seatNos[index];
+    }
+}
@@ -0,0 +1,10 @@
+package com.dmdev.jdbc.starter.trace;
+
+/**
+ * How bind parameters appear in the query log: not at all, with string values masked, or as bound.
+ */
+public enum ParameterMode {
+    NONE,
+    MASKED,
+    PLAIN
+}
@@ -0,0 +1,10 @@
+package com.dmdev.jdbc.starter.trace;
+
+public record QueryTrace(String operation,
+                         String sql,
+                         Object[] parameters,
+                         long elapsedNanos,
+                         long rows,
+                         boolean slow,
+                         boolean failed) {
+}
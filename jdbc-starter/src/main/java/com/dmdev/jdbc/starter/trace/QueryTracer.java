@@ -0,0 +1,170 @@
+package com.dmdev.jdbc.starter.trace;
+
+import com.dmdev.jdbc.starter.metrics.Counter;
+import com.dmdev.jdbc.starter.metrics.MetricsRegistry;
+import com.dmdev.jdbc.starter.util.PropertiesUtil;
+
+import java.time.temporal.TemporalAccessor;
+import java.util.Date;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import static java.lang.System.Logger.Level.INFO;
+import static java.lang.System.Logger.Level.WARNING;
+
+/**
+ * Query log fed by the pooled statement wrappers. Queries slower than {@code trace.slow.threshold.ms},
+ * failed queries and a {@code trace.sample.rate} share of the rest are queued on a bounded buffer and
+ * logged by a background thread; when the buffer is full the trace is dropped and counted instead of
+ * blocking the caller. Formatting and parameter masking happen on the background thread.
+ */
+public final class QueryTracer {
+
+    private static final System.Logger LOGGER = System.getLogger(QueryTracer.class.getName());
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final ThreadLocal<Operation> OPERATION = new ThreadLocal<>();
+    private static final QueryTracer INSTANCE = new QueryTracer();
+
+    private final boolean enabled;
+    private final long slowThresholdNanos;
+    private final double sampleRate;
+    private final ParameterMode parameterMode;
+    private final BlockingQueue<QueryTrace> buffer;
+    private final Counter logged;
+    private final Counter dropped;
+
+    private QueryTracer() {
+        this.enabled = PropertiesUtil.getBoolean("trace.enabled", true);
+        this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(PropertiesUtil.getLong("trace.slow.threshold.ms", 500));
+        this.sampleRate = PropertiesUtil.getDouble("trace.sample.rate", 0);
+        String parameters = PropertiesUtil.get("trace.parameters");
+        this.parameterMode = parameters == null
+                ? ParameterMode.MASKED
+                : ParameterMode.valueOf(parameters.trim().toUpperCase(Locale.ROOT));
+        this.buffer = new ArrayBlockingQueue<>(PropertiesUtil.getInt("trace.buffer.size", 4096));
+
+        MetricsRegistry registry = MetricsRegistry.getInstance();
+        this.logged = registry.counter("trace.logged");
+        this.dropped = registry.counter("trace.dropped");
+        registry.gauge("trace.buffered", buffer::size);
+
+        if (enabled) {
+            Thread writer = new Thread(this::drain, "query-trace-writer");
+            writer.setDaemon(true);
+            writer.start();
+        }
+    }
+
+    public static QueryTracer getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Attributes the queries run by the current thread to a DAO operation until {@link #exit()}.
+     * Operations nest: a DAO calling another one gets its own operation back when the inner one exits.
+     */
+    public static void enter(String operation) {
+        OPERATION.set(new Operation(operation, OPERATION.get()));
+    }
+
+    public static void exit() {
+        Operation current = OPERATION.get();
+        if (current == null || current.outer() == null) {
+            OPERATION.remove();
+        } else {
+            OPERATION.set(current.outer());
+        }
+    }
+
+    /**
+     * The operation the current thread runs, or {@code null}. Statements capture it when they are
+     * created, as their result sets may be traced after the operation has exited.
+     */
+    public static String currentOperation() {
+        Operation current = OPERATION.get();
+        return current == null ? null : current.name();
+    }
+
+    /**
+     * Start timestamp for {@link #shouldRecord}, or {@code 0} when tracing is off.
+     */
+    public long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    public boolean shouldRecord(long elapsedNanos, boolean failed) {
+        return elapsedNanos >= slowThresholdNanos
+               || failed
+               || sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+
+    public boolean recordsParameters() {
+        return parameterMode != ParameterMode.NONE;
+    }
+
+    public void record(String operation, String sql, Object[] parameters, long elapsedNanos, long rows, boolean failed) {
+        QueryTrace trace = new QueryTrace(operation, sql, parameters, elapsedNanos, rows,
+                elapsedNanos >= slowThresholdNanos, failed);
+        if (!buffer.offer(trace)) {
+            dropped.increment();
+        }
+    }
+
+    private void drain() {
+        while (true) {
+            try {
+                QueryTrace trace = buffer.take();
+                LOGGER.log(trace.slow() || trace.failed() ? WARNING : INFO, format(trace));
+                logged.increment();
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                LOGGER.log(WARNING, "Unable to log a query trace", e);
+            }
+        }
+    }
+
+    private String format(QueryTrace trace) {
+        StringBuilder message = new StringBuilder(256)
+                .append(trace.failed() ? "Failed" : trace.slow() ? "Slow" : "Sampled")
+                .append(" query in ").append(TimeUnit.NANOSECONDS.toMicros(trace.elapsedNanos()) / 1000.0).append(" ms");
+        if (trace.rows() >= 0) {
+            message.append(", ").append(trace.rows()).append(" rows");
+        }
+        message.append(" [").append(trace.operation() == null ? "unknown" : trace.operation()).append("] ")
+                .append(trace.sql() == null ? "<batch>" : WHITESPACE.matcher(trace.sql().strip()).replaceAll(" "));
+
+        Object[] parameters = trace.parameters();
+        if (parameterMode != ParameterMode.NONE && parameters != null && parameters.length > 0) {
+            message.append(" with (");
+            for (int i = 0; i < parameters.length; i++) {
+                message.append(i == 0 ? "" : ", ").append(formatParameter(parameters[i]));
+            }
+            message.append(')');
+        }
+        return message.toString();
+    }
+
+    private String formatParameter(Object value) {
+        if (value == null || value instanceof Number || value instanceof Boolean
+            || value instanceof TemporalAccessor || value instanceof Date) {
+            return String.valueOf(value);
+        }
+        if (value instanceof CharSequence text) {
+            return parameterMode == ParameterMode.PLAIN
+                    ? "'" + text + "'"
+                    : "'***'(" + text.length() + ")";
+        }
+        if (value instanceof byte[] bytes) {
+            return "<" + bytes.length + " bytes>";
+        }
+        return "<" + value.getClass().getSimpleName() + ">";
+    }
+
+    private record Operation(String name, Operation outer) {
+    }
+}
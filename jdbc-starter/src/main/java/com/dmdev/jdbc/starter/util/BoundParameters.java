@@ -0,0 +1,34 @@
+package com.dmdev.jdbc.starter.util;
+
+import java.util.Arrays;
+
+/**
+ * Values bound to a prepared statement, kept for the query log. Recording is a plain array store;
+ * a copy is made only for queries that are actually traced.
+ */
+final class BoundParameters {
+
+    static final Object[] NONE = new Object[0];
+
+    private Object[] values = NONE;
+    private int count;
+
+    void set(int index, Object value) {
+        if (index > values.length) {
+            values = Arrays.copyOf(values, Math.max(index, Math.max(8, values.length * 2)));
+        }
+        values[index - 1] = value;
+        if (index > count) {
+            count = index;
+        }
+    }
+
+    void clear() {
+        Arrays.fill(values, 0, count, null);
+        count = 0;
+    }
+
+    Object[] snapshot() {
+        return count == 0 ? NONE : Arrays.copyOf(values, count);
+    }
+}
@@ -0,0 +1,142 @@
+package com.dmdev.jdbc.starter.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static com.dmdev.jdbc.starter.util.PooledEntry.IN_USE;
+import static com.dmdev.jdbc.starter.util.PooledEntry.NOT_IN_USE;
+import static com.dmdev.jdbc.starter.util.PooledEntry.REMOVED;
+import static com.dmdev.jdbc.starter.util.PooledEntry.RESERVED;
+
+/**
+ * Lock-free bag of pooled entries. A borrower first looks at the entries it released itself
+ * (thread-local), then scans the shared list and finally waits on a fair hand-off queue, so
+ * under saturation connections are passed to waiting threads in arrival order.
+ */
+final class ConnectionBag {
+
+    private static final int THREAD_LOCAL_LIMIT = 16;
+
+    private final CopyOnWriteArrayList<PooledEntry> sharedList = new CopyOnWriteArrayList<>();
+    private final ThreadLocal<List<PooledEntry>> threadList = ThreadLocal.withInitial(ArrayList::new);
+    private final SynchronousQueue<PooledEntry> handoffQueue = new SynchronousQueue<>(true);
+    private final AtomicInteger waiters = new AtomicInteger();
+
+    PooledEntry pollIdle() {
+        if (waiters.get() == 0) {
+            List<PooledEntry> list = threadList.get();
+            for (int i = list.size() - 1; i >= 0; i--) {
+                PooledEntry entry = list.remove(i);
+                if (entry.compareAndSetState(NOT_IN_USE, IN_USE)) {
+                    return entry;
+                }
+            }
+        }
+
+        for (PooledEntry entry : sharedList) {
+            if (entry.compareAndSetState(NOT_IN_USE, IN_USE)) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    PooledEntry await(long timeoutNanos) throws InterruptedException {
+        waiters.incrementAndGet();
+        try {
+            PooledEntry entry = pollIdle();
+            if (entry != null) {
+                return entry;
+            }
+
+            long deadline = System.nanoTime() + timeoutNanos;
+            while (timeoutNanos > 0) {
+                entry = handoffQueue.poll(timeoutNanos, TimeUnit.NANOSECONDS);
+                if (entry == null || entry.compareAndSetState(NOT_IN_USE, IN_USE)) {
+                    return entry;
+                }
+                timeoutNanos = deadline - System.nanoTime();
+            }
+            return null;
+        } finally {
+            waiters.decrementAndGet();
+        }
+    }
+
+    void add(PooledEntry entry) {
+        sharedList.add(entry);
+        handOff(entry);
+    }
+
+    void addInUse(PooledEntry entry) {
+        entry.setState(IN_USE);
+        sharedList.add(entry);
+    }
+
+    void requite(PooledEntry entry) {
+        entry.setState(NOT_IN_USE);
+        if (handOff(entry)) {
+            return;
+        }
+        List<PooledEntry> list = threadList.get();
+        if (list.size() < THREAD_LOCAL_LIMIT) {
+            list.add(entry);
+        }
+    }
+
+    boolean reserve(PooledEntry entry) {
+        return entry.compareAndSetState(NOT_IN_USE, RESERVED);
+    }
+
+    void unreserve(PooledEntry entry) {
+        if (entry.compareAndSetState(RESERVED, NOT_IN_USE)) {
+            handOff(entry);
+        }
+    }
+
+    boolean remove(PooledEntry entry) {
+        entry.setState(REMOVED);
+        return sharedList.remove(entry);
+    }
+
+    List<PooledEntry> entries() {
+        return sharedList;
+    }
+
+    int waiting() {
+        return waiters.get();
+    }
+
+    int count(int state) {
+        int count = 0;
+        for (PooledEntry entry : sharedList) {
+            if (entry.state() == state) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    void clear() {
+        sharedList.clear();
+    }
+
+    private boolean handOff(PooledEntry entry) {
+        for (int i = 0; waiters.get() > 0; i++) {
+            if (entry.state() != NOT_IN_USE || handoffQueue.offer(entry)) {
+                return true;
+            }
+            if ((i & 0xff) == 0xff) {
+                LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(10));
+            } else {
+                Thread.yield();
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,10 @@
+package com.dmdev.jdbc.starter.util;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+@FunctionalInterface
+public interface ConnectionFactory {
+
+    Connection open() throws SQLException;
+}
@@ -0,0 +1,324 @@
+package com.dmdev.jdbc.starter.util;
+
+import com.dmdev.jdbc.starter.exception.ConnectionPoolException;
+import com.dmdev.jdbc.starter.metrics.ConnectionAcquireEvent;
+import com.dmdev.jdbc.starter.metrics.Counter;
+import com.dmdev.jdbc.starter.metrics.MetricsRegistry;
+import com.dmdev.jdbc.starter.metrics.Timer;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.dmdev.jdbc.starter.util.PooledEntry.IN_USE;
+import static com.dmdev.jdbc.starter.util.PooledEntry.NOT_IN_USE;
+import static com.dmdev.jdbc.starter.util.PooledEntry.RESERVED;
+import static java.lang.System.Logger.Level.DEBUG;
+import static java.lang.System.Logger.Level.WARNING;
+
+public final class ConnectionPool implements AutoCloseable {
+
+    private static final System.Logger LOGGER = System.getLogger(ConnectionPool.class.getName());
+    private static final long VALIDATION_BYPASS_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
+
+    private final String name;
+    private final ConnectionPoolConfig config;
+    private final ConnectionFactory connectionFactory;
+    private final ConnectionBag bag = new ConnectionBag();
+    private final AtomicInteger size = new AtomicInteger();
+    private final Timer acquireTimer;
+    private final Counter timeouts;
+    private final Counter statementCacheHits;
+    private final Counter statementCacheMisses;
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed;
+
+    public ConnectionPool(String name, ConnectionPoolConfig config, ConnectionFactory connectionFactory) {
+        this.name = name;
+        this.config = config;
+        this.connectionFactory = connectionFactory;
+
+        MetricsRegistry registry = MetricsRegistry.getInstance();
+        this.acquireTimer = registry.timer("pool." + name + ".acquire");
+        this.timeouts = registry.counter("pool." + name + ".timeouts");
+        this.statementCacheHits = registry.counter("pool." + name + ".statement.cache.hits");
+        this.statementCacheMisses = registry.counter("pool." + name + ".statement.cache.misses");
+        registry.gauge("pool." + name + ".size", this::size);
+        registry.gauge("pool." + name + ".active", this::activeCount);
+        registry.gauge("pool." + name + ".idle", this::idleCount);
+        registry.gauge("pool." + name + ".pending", this::pendingCount);
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, name + "-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        fillToMinimum();
+
+        long period = Math.max(1, Math.min(config.validationInterval().toMillis(), config.idleTimeout().toMillis()));
+        housekeeper.scheduleWithFixedDelay(this::houseKeep, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    public Connection get() {
+        ConnectionAcquireEvent event = null;
+        long startNanos = 0;
+        try {
+            while (true) {
+                if (closed) {
+                    throw new ConnectionPoolException("Pool " + name + " is closed");
+                }
+
+                PooledEntry entry = bag.pollIdle();
+                if (entry == null) {
+                    if (event == null) {
+                        event = new ConnectionAcquireEvent();
+                        event.begin();
+                        startNanos = System.nanoTime();
+                    }
+                    entry = tryCreate(true);
+                }
+                if (entry == null) {
+                    long remaining = config.acquireTimeout().toNanos() - (System.nanoTime() - startNanos);
+                    entry = remaining > 0 ? bag.await(remaining) : null;
+                    if (entry == null) {
+                        timeouts.increment();
+                        acquireTimer.recordSince(startNanos);
+                        commit(event, true);
+                        throw timeout();
+                    }
+                }
+
+                if (config.validateOnBorrow()
+                    && System.nanoTime() - entry.lastUsedNanos() > VALIDATION_BYPASS_NANOS
+                    && !isAlive(entry)) {
+                    retire(entry);
+                    continue;
+                }
+
+                // filling in a stack trace costs more than the rest of the borrow, so it is opt-in
+                if (!config.leakDetectionThreshold().isZero()) {
+                    entry.markBorrowed(new Throwable("Connection borrowed here"));
+                }
+                if (event == null) {
+                    acquireTimer.record(0);
+                } else {
+                    acquireTimer.recordSince(startNanos);
+                    commit(event, false);
+                }
+                return new PooledConnection(entry, this);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConnectionPoolException("Interrupted while waiting for a connection from pool " + name, e);
+        }
+    }
+
+    private void commit(ConnectionAcquireEvent event, boolean timedOut) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.pool = name;
+            event.timedOut = timedOut;
+            event.commit();
+        }
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public int maxSize() {
+        return config.maxSize();
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    public int idleCount() {
+        return bag.count(NOT_IN_USE);
+    }
+
+    public int activeCount() {
+        return bag.count(IN_USE);
+    }
+
+    public int pendingCount() {
+        return bag.waiting();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+        for (PooledEntry entry : bag.entries()) {
+            entry.setState(PooledEntry.REMOVED);
+            closeQuietly(entry);
+        }
+        bag.clear();
+        size.set(0);
+    }
+
+    private ConnectionPoolException timeout() {
+        return new ConnectionPoolException("Timed out after " + config.acquireTimeout().toMillis()
+                                           + " ms waiting for a connection from pool " + name
+                                           + " (size " + size.get() + "/" + config.maxSize() + ")");
+    }
+
+    void release(PooledEntry entry, boolean broken) {
+        if (!entry.compareAndSetState(IN_USE, RESERVED)) {
+            return;
+        }
+        entry.markReturned();
+        if (broken || closed || isClosed(entry)) {
+            retire(entry);
+        } else {
+            bag.requite(entry);
+        }
+    }
+
+    private PooledEntry tryCreate(boolean inUse) {
+        while (true) {
+            int current = size.get();
+            if (current >= config.maxSize()) {
+                return null;
+            }
+            if (size.compareAndSet(current, current + 1)) {
+                PooledEntry entry;
+                try {
+                    entry = newEntry();
+                } catch (RuntimeException e) {
+                    size.decrementAndGet();
+                    throw e;
+                }
+                if (inUse) {
+                    bag.addInUse(entry);
+                } else {
+                    bag.add(entry);
+                }
+                return entry;
+            }
+        }
+    }
+
+    private PooledEntry newEntry() {
+        Connection connection;
+        try {
+            connection = connectionFactory.open();
+        } catch (SQLException e) {
+            throw new ConnectionPoolException("Unable to open a connection for pool " + name, e);
+        }
+
+        try {
+            return new PooledEntry(connection,
+                    new StatementCache(config.statementCacheSize(), statementCacheHits, statementCacheMisses),
+                    connection.isReadOnly(), connection.getTransactionIsolation());
+        } catch (SQLException e) {
+            try {
+                connection.close();
+            } catch (SQLException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw new ConnectionPoolException("Unable to read the defaults of a new connection for pool " + name, e);
+        }
+    }
+
+    private void retire(PooledEntry entry) {
+        if (bag.remove(entry)) {
+            size.decrementAndGet();
+            closeQuietly(entry);
+            if (!closed && bag.waiting() > 0) {
+                housekeeper.execute(this::replenish);
+            }
+        }
+    }
+
+    private void replenish() {
+        try {
+            while (!closed && bag.waiting() > 0 && tryCreate(false) != null) {
+                LOGGER.log(DEBUG, "Added a replacement connection to pool " + name);
+            }
+        } catch (RuntimeException e) {
+            LOGGER.log(WARNING, "Unable to replace a connection in pool " + name, e);
+        }
+    }
+
+    private void houseKeep() {
+        try {
+            detectLeaks();
+            evictAndValidateIdle();
+            fillToMinimum();
+        } catch (RuntimeException e) {
+            LOGGER.log(WARNING, "Housekeeping of pool " + name + " failed", e);
+        }
+    }
+
+    private void detectLeaks() {
+        long threshold = config.leakDetectionThreshold().toNanos();
+        if (threshold == 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        for (PooledEntry entry : bag.entries()) {
+            if (entry.state() == IN_USE && now - entry.borrowedNanos() > threshold && entry.markLeakReported()) {
+                LOGGER.log(WARNING, "Possible connection leak in pool " + name + ": connection held for more than "
+                                    + config.leakDetectionThreshold().toMillis() + " ms", entry.borrowTrace());
+            }
+        }
+    }
+
+    private void evictAndValidateIdle() {
+        long now = System.nanoTime();
+        long idleTimeout = config.idleTimeout().toNanos();
+        for (PooledEntry entry : bag.entries()) {
+            if (!bag.reserve(entry)) {
+                continue;
+            }
+            if (size.get() > config.minSize() && now - entry.lastUsedNanos() > idleTimeout) {
+                LOGGER.log(DEBUG, "Evicting idle connection from pool " + name);
+                retire(entry);
+            } else if (isAlive(entry)) {
+                bag.unreserve(entry);
+            } else {
+                LOGGER.log(WARNING, "Replacing broken connection in pool " + name);
+                retire(entry);
+            }
+        }
+    }
+
+    private void fillToMinimum() {
+        while (!closed && size.get() < config.minSize()) {
+            if (tryCreate(false) == null) {
+                return;
+            }
+        }
+    }
+
+    private boolean isAlive(PooledEntry entry) {
+        try {
+            return entry.connection().isValid(config.validationTimeoutSeconds());
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private boolean isClosed(PooledEntry entry) {
+        try {
+            return entry.connection().isClosed();
+        } catch (SQLException e) {
+            return true;
+        }
+    }
+
+    private void closeQuietly(PooledEntry entry) {
+        entry.statementCache().closeAll();
+        try {
+            entry.connection().close();
+        } catch (SQLException e) {
+            LOGGER.log(DEBUG, "Failed to close connection of pool " + name, e);
+        }
+    }
+}
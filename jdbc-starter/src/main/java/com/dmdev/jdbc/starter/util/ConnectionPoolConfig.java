@@ -0,0 +1,55 @@
+package com.dmdev.jdbc.starter.util;
+
+import java.time.Duration;
+
+public record ConnectionPoolConfig(int minSize,
+                                   int maxSize,
+                                   Duration acquireTimeout,
+                                   Duration idleTimeout,
+                                   boolean validateOnBorrow,
+                                   Duration validationInterval,
+                                   int validationTimeoutSeconds,
+                                   Duration leakDetectionThreshold,
+                                   int statementCacheSize) {
+
+    private static final String POOL_SIZE_KEY = "db.pool.size";
+    private static final String MIN_SIZE_KEY = "db.pool.min.size";
+    private static final String MAX_SIZE_KEY = "db.pool.max.size";
+    private static final String ACQUIRE_TIMEOUT_KEY = "db.pool.acquire.timeout.ms";
+    private static final String IDLE_TIMEOUT_KEY = "db.pool.idle.timeout.ms";
+    private static final String VALIDATE_ON_BORROW_KEY = "db.pool.validation.on.borrow";
+    private static final String VALIDATION_INTERVAL_KEY = "db.pool.validation.interval.ms";
+    private static final String VALIDATION_TIMEOUT_KEY = "db.pool.validation.timeout.seconds";
+    private static final String LEAK_DETECTION_THRESHOLD_KEY = "db.pool.leak.detection.threshold.ms";
+    private static final String STATEMENT_CACHE_SIZE_KEY = "db.pool.statement.cache.size";
+
+    private static final int DEFAULT_POOL_SIZE = 10;
+    private static final int DEFAULT_MIN_SIZE = 2;
+    private static final long DEFAULT_ACQUIRE_TIMEOUT_MS = 30_000;
+    private static final long DEFAULT_IDLE_TIMEOUT_MS = 600_000;
+    private static final long DEFAULT_VALIDATION_INTERVAL_MS = 30_000;
+    private static final int DEFAULT_VALIDATION_TIMEOUT_SECONDS = 5;
+    private static final int DEFAULT_STATEMENT_CACHE_SIZE = 64;
+
+    public ConnectionPoolConfig {
+        if (minSize < 0 || maxSize < 1 || minSize > maxSize) {
+            throw new IllegalArgumentException("Invalid pool size: min=" + minSize + ", max=" + maxSize);
+        }
+    }
+
+    public static ConnectionPoolConfig fromProperties() {
+        int maxSize = PropertiesUtil.getInt(MAX_SIZE_KEY, PropertiesUtil.getInt(POOL_SIZE_KEY, DEFAULT_POOL_SIZE));
+        int minSize = Math.min(PropertiesUtil.getInt(MIN_SIZE_KEY, DEFAULT_MIN_SIZE), maxSize);
+        return new ConnectionPoolConfig(
+                minSize,
+                maxSize,
+                Duration.ofMillis(PropertiesUtil.getLong(ACQUIRE_TIMEOUT_KEY, DEFAULT_ACQUIRE_TIMEOUT_MS)),
+                Duration.ofMillis(PropertiesUtil.getLong(IDLE_TIMEOUT_KEY, DEFAULT_IDLE_TIMEOUT_MS)),
+                PropertiesUtil.getBoolean(VALIDATE_ON_BORROW_KEY, true),
+                Duration.ofMillis(PropertiesUtil.getLong(VALIDATION_INTERVAL_KEY, DEFAULT_VALIDATION_INTERVAL_MS)),
+                PropertiesUtil.getInt(VALIDATION_TIMEOUT_KEY, DEFAULT_VALIDATION_TIMEOUT_SECONDS),
+                Duration.ofMillis(PropertiesUtil.getLong(LEAK_DETECTION_THRESHOLD_KEY, 0)),
+                PropertiesUtil.getInt(STATEMENT_CACHE_SIZE_KEY, DEFAULT_STATEMENT_CACHE_SIZE)
+        );
+    }
+}
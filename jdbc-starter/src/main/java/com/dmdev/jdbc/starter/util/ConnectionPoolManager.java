@@ -1,49 +1,72 @@
 package com.dmdev.jdbc.starter.util;
 
-import java.lang.reflect.InvocationHandler;
-import java.lang.reflect.Method;
-import java.lang.reflect.Proxy;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.BlockingQueue;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static java.lang.System.Logger.Level.WARNING;
 
 public final class ConnectionPoolManager {
+    private static final System.Logger LOGGER = System.getLogger(ConnectionPoolManager.class.getName());
     private static final String USERNAME_KEY = "db.username";
     private static final String PASSWORD_KEY = "db.password";
     private static final String URL_KEY = "db.url";
-    private static final String POOL_SIZE_KEY = "db.pool.size";
-    private static final Integer DEFAULT_POOL_SIZE = 10;
-    private static BlockingQueue<Connection> pool;
-    private static List<Connection> sourceConnection;
+    private static final String REPLICA_URLS_KEY = "db.replica.urls";
+    private static final String REPLICA_BALANCING_KEY = "db.replica.balancing";
+    private static final String REPLICA_MAX_LAG_KEY = "db.replica.max.lag.ms";
+    private static final String REPLICA_RETRY_KEY = "db.replica.retry.ms";
+    private static final String REPLICA_CHECK_INTERVAL_KEY = "db.replica.lag.check.interval.ms";
+    private static final String MIGRATION_ENABLED_KEY = "db.migration.enabled";
+    private static ConnectionPool pool;
+    private static final List<Runnable> BEFORE_CLOSE = new CopyOnWriteArrayList<>();
+    private static ReplicaSet replicas;
 
     static {
         loadDriver();
         initConnectionPool();
+        initReplicas();
+        if (PropertiesUtil.getBoolean(MIGRATION_ENABLED_KEY, false)) {
+            SchemaMigrator.migrate();
+        }
     }
 
     private ConnectionPoolManager() {
     }
 
     private static void initConnectionPool() {
+        pool = new ConnectionPool("main", ConnectionPoolConfig.fromProperties(), () -> open(PropertiesUtil.get(URL_KEY)));
+    }
 
-        String poolSize = PropertiesUtil.get(POOL_SIZE_KEY);
-        int size = poolSize == null ? DEFAULT_POOL_SIZE : Integer.parseInt(poolSize);
-        pool = new ArrayBlockingQueue<>(size);
-        sourceConnection = new ArrayList<>();
-        for(int i = 0; i < size; i++) {
-            Connection connection = open();
-            Connection proxyConnection = (Connection)Proxy.newProxyInstance(ConnectionManager.class.getClassLoader(), new Class[]{Connection.class},
-                    (proxy, method, args) -> method.getName().equals("close")
-                            ? pool.add((Connection) proxy)
-                            : method.invoke(connection, args));
-            pool.add(proxyConnection);
-            sourceConnection.add(connection);
+    private static void initReplicas() {
+        String urls = PropertiesUtil.get(REPLICA_URLS_KEY);
+        if (urls == null || urls.isBlank()) {
+            return;
         }
 
+        // replicas start empty so that one being down does not stop the application from starting
+        ConnectionPoolConfig primaryConfig = ConnectionPoolConfig.fromProperties();
+        ConnectionPoolConfig config = new ConnectionPoolConfig(0, primaryConfig.maxSize(),
+                primaryConfig.acquireTimeout(), primaryConfig.idleTimeout(), primaryConfig.validateOnBorrow(),
+                primaryConfig.validationInterval(), primaryConfig.validationTimeoutSeconds(),
+                primaryConfig.leakDetectionThreshold(), primaryConfig.statementCacheSize());
+
+        List<ConnectionPool> pools = new ArrayList<>();
+        for (String url : urls.split(",")) {
+            String replicaUrl = url.trim();
+            pools.add(new ConnectionPool("replica-" + (pools.size() + 1), config, () -> open(replicaUrl)));
+        }
+        String balancing = PropertiesUtil.get(REPLICA_BALANCING_KEY);
+        replicas = new ReplicaSet(pools,
+                balancing == null
+                        ? ReplicaSet.Balancing.ROUND_ROBIN
+                        : ReplicaSet.Balancing.valueOf(balancing.trim().toUpperCase(Locale.ROOT)),
+                PropertiesUtil.getLong(REPLICA_MAX_LAG_KEY, 1000),
+                PropertiesUtil.getLong(REPLICA_RETRY_KEY, 5000),
+                PropertiesUtil.getLong(REPLICA_CHECK_INTERVAL_KEY, 1000));
     }
 
     private static void loadDriver() {
@@ -54,34 +77,63 @@ public final class ConnectionPoolManager {
         }
     }
 
+    /**
+     * Borrows a pooled connection, or shares the one bound to the current thread by a
+     * {@link TransactionTemplate}.
+     */
     public static Connection get() {
-        try {
-            return pool.take();
-        } catch (InterruptedException e) {
-            throw new RuntimeException(e);
+        TransactionScope scope = TransactionScope.current();
+        return scope == null ? pool.get() : scope.borrow();
+    }
+
+    /**
+     * Connection for a read that may see slightly stale data: one from a read replica when
+     * {@code db.replica.urls} is set, otherwise the same as {@link #get()}. Inside a transaction
+     * the read stays on the transaction's connection.
+     */
+    public static Connection getForRead() {
+        TransactionScope scope = TransactionScope.current();
+        if (scope != null) {
+            return scope.borrow();
         }
+        return replicas == null ? pool.get() : replicas.get(pool::get);
+    }
+
+    static PooledConnection acquire() {
+        return (PooledConnection) pool.get();
     }
 
+    private static Connection open(String url) throws SQLException {
+        return DriverManager.getConnection(
+                url,
+                PropertiesUtil.get(USERNAME_KEY),
+                PropertiesUtil.get(PASSWORD_KEY)
+        );
+    }
 
-    private static Connection open(){
-        try {
-            return DriverManager.getConnection(
-                    PropertiesUtil.get(URL_KEY),
-                    PropertiesUtil.get(USERNAME_KEY),
-                    PropertiesUtil.get(PASSWORD_KEY)
-            );
-        } catch (SQLException e) {
-            throw new RuntimeException(e);
-        }
+    public static int maxSize() {
+        return pool.maxSize();
+    }
+
+    /**
+     * Registers an action run by {@link #closePool()} while the pools are still open, for
+     * components that must flush pending writes. Actions run in reverse registration order.
+     */
+    public static void beforeClose(Runnable action) {
+        BEFORE_CLOSE.add(action);
     }
 
     public static void closePool() {
-        try {
-            for (Connection connection : sourceConnection) {
-                connection.close();
+        for (int i = BEFORE_CLOSE.size() - 1; i >= 0; i--) {
+            try {
+                BEFORE_CLOSE.get(i).run();
+            } catch (RuntimeException e) {
+                LOGGER.log(WARNING, "Action before closing the pool failed", e);
             }
-        } catch (SQLException e) {
-            throw new RuntimeException(e);
         }
+        if (replicas != null) {
+            replicas.close();
+        }
+        pool.close();
     }
 }
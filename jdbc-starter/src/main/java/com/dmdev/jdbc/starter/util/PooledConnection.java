@@ -0,0 +1,536 @@
+package com.dmdev.jdbc.starter.util;
+
+import com.dmdev.jdbc.starter.util.StatementCache.StatementKey;
+
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.CallableStatement;
+import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.NClob;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLClientInfoException;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.sql.SQLXML;
+import java.sql.Savepoint;
+import java.sql.ShardingKey;
+import java.sql.Statement;
+import java.sql.Struct;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Executor;
+
+import static java.lang.System.Logger.Level.DEBUG;
+
+/**
+ * Handle given out by {@link ConnectionPool} for a single borrow of a physical connection.
+ * Closing it is idempotent: open statements are closed, autocommit, read-only and isolation
+ * are restored to the connection defaults and the connection goes back to the pool exactly once.
+ * Any other call after close fails with {@link SQLException}.
+ * <p>
+ * A transaction scope shares its handle with the DAO calls it runs through {@link #retain()};
+ * only the last {@link #close()} releases the connection.
+ */
+final class PooledConnection implements Connection {
+
+    private static final System.Logger LOGGER = System.getLogger(PooledConnection.class.getName());
+
+    private final PooledEntry entry;
+    private final ConnectionPool pool;
+    private final Connection delegate;
+    private final List<Statement> statements = new ArrayList<>();
+    private int borrowers = 1;
+    private boolean closed;
+    private boolean autoCommitDirty;
+    private boolean readOnlyDirty;
+    private boolean isolationDirty;
+
+    PooledConnection(PooledEntry entry, ConnectionPool pool) {
+        this.entry = entry;
+        this.pool = pool;
+        this.delegate = entry.connection();
+    }
+
+    @Override
+    public void abort(Executor executor) throws SQLException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            delegate.abort(executor);
+        } finally {
+            pool.release(entry, true);
+        }
+    }
+
+    @Override
+    public void beginRequest() throws SQLException {
+        checkOpen();
+        delegate.beginRequest();
+    }
+
+    @Override
+    public void clearWarnings() throws SQLException {
+        checkOpen();
+        delegate.clearWarnings();
+    }
+
+    @Override
+    public void close() throws SQLException {
+        if (closed || --borrowers > 0) {
+            return;
+        }
+        closed = true;
+        boolean broken = false;
+        try {
+            closeStatements();
+            resetState();
+        } catch (SQLException e) {
+            broken = true;
+            LOGGER.log(DEBUG, "Failed to reset a connection before returning it to the pool", e);
+        } finally {
+            pool.release(entry, broken);
+        }
+    }
+
+    @Override
+    public void commit() throws SQLException {
+        checkOpen();
+        delegate.commit();
+    }
+
+    @Override
+    public Array createArrayOf(String typeName, Object[] elements) throws SQLException {
+        checkOpen();
+        return delegate.createArrayOf(typeName, elements);
+    }
+
+    @Override
+    public Blob createBlob() throws SQLException {
+        checkOpen();
+        return delegate.createBlob();
+    }
+
+    @Override
+    public Clob createClob() throws SQLException {
+        checkOpen();
+        return delegate.createClob();
+    }
+
+    @Override
+    public NClob createNClob() throws SQLException {
+        checkOpen();
+        return delegate.createNClob();
+    }
+
+    @Override
+    public SQLXML createSQLXML() throws SQLException {
+        checkOpen();
+        return delegate.createSQLXML();
+    }
+
+    @Override
+    public Statement createStatement() throws SQLException {
+        checkOpen();
+        return track(new PooledStatement(this, delegate.createStatement()));
+    }
+
+    @Override
+    public Statement createStatement(int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
+        checkOpen();
+        return track(new PooledStatement(this, delegate.createStatement(resultSetType, resultSetConcurrency, resultSetHoldability)));
+    }
+
+    @Override
+    public Statement createStatement(int resultSetType, int resultSetConcurrency) throws SQLException {
+        checkOpen();
+        return track(new PooledStatement(this, delegate.createStatement(resultSetType, resultSetConcurrency)));
+    }
+
+    @Override
+    public Struct createStruct(String typeName, Object[] elements) throws SQLException {
+        checkOpen();
+        return delegate.createStruct(typeName, elements);
+    }
+
+    @Override
+    public void endRequest() throws SQLException {
+        checkOpen();
+        delegate.endRequest();
+    }
+
+    @Override
+    public boolean getAutoCommit() throws SQLException {
+        checkOpen();
+        return delegate.getAutoCommit();
+    }
+
+    @Override
+    public String getCatalog() throws SQLException {
+        checkOpen();
+        return delegate.getCatalog();
+    }
+
+    @Override
+    public Properties getClientInfo() throws SQLException {
+        checkOpen();
+        return delegate.getClientInfo();
+    }
+
+    @Override
+    public String getClientInfo(String name) throws SQLException {
+        checkOpen();
+        return delegate.getClientInfo(name);
+    }
+
+    @Override
+    public int getHoldability() throws SQLException {
+        checkOpen();
+        return delegate.getHoldability();
+    }
+
+    @Override
+    public DatabaseMetaData getMetaData() throws SQLException {
+        checkOpen();
+        return delegate.getMetaData();
+    }
+
+    @Override
+    public int getNetworkTimeout() throws SQLException {
+        checkOpen();
+        return delegate.getNetworkTimeout();
+    }
+
+    @Override
+    public String getSchema() throws SQLException {
+        checkOpen();
+        return delegate.getSchema();
+    }
+
+    @Override
+    public int getTransactionIsolation() throws SQLException {
+        checkOpen();
+        return delegate.getTransactionIsolation();
+    }
+
+    @Override
+    public Map<String, Class<?>> getTypeMap() throws SQLException {
+        checkOpen();
+        return delegate.getTypeMap();
+    }
+
+    @Override
+    public SQLWarning getWarnings() throws SQLException {
+        checkOpen();
+        return delegate.getWarnings();
+    }
+
+    @Override
+    public boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public boolean isReadOnly() throws SQLException {
+        checkOpen();
+        return delegate.isReadOnly();
+    }
+
+    @Override
+    public boolean isValid(int timeout) throws SQLException {
+        return !closed && delegate.isValid(timeout);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        checkOpen();
+        return iface.isInstance(this) || delegate.isWrapperFor(iface);
+    }
+
+    @Override
+    public String nativeSQL(String sql) throws SQLException {
+        checkOpen();
+        return delegate.nativeSQL(sql);
+    }
+
+    @Override
+    public CallableStatement prepareCall(String sql, int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
+        checkOpen();
+        return track(new PooledCallableStatement(this, delegate.prepareCall(sql, resultSetType, resultSetConcurrency, resultSetHoldability), sql));
+    }
+
+    @Override
+    public CallableStatement prepareCall(String sql, int resultSetType, int resultSetConcurrency) throws SQLException {
+        checkOpen();
+        return track(new PooledCallableStatement(this, delegate.prepareCall(sql, resultSetType, resultSetConcurrency), sql));
+    }
+
+    @Override
+    public CallableStatement prepareCall(String sql) throws SQLException {
+        checkOpen();
+        return track(new PooledCallableStatement(this, delegate.prepareCall(sql), sql));
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, int[] columnIndexes) throws SQLException {
+        checkOpen();
+        return track(new PooledPreparedStatement(this, delegate.prepareStatement(sql, columnIndexes), sql, null));
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, String[] columnNames) throws SQLException {
+        checkOpen();
+        return track(new PooledPreparedStatement(this, delegate.prepareStatement(sql, columnNames), sql, null));
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
+        checkOpen();
+        StatementKey key = cacheKey(sql, resultSetType, resultSetConcurrency, resultSetHoldability, Statement.NO_GENERATED_KEYS);
+        PreparedStatement statement = key == null ? null : entry.statementCache().take(key);
+        if (statement == null) {
+            statement = delegate.prepareStatement(sql, resultSetType, resultSetConcurrency, resultSetHoldability);
+        }
+        return track(new PooledPreparedStatement(this, statement, sql, key));
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency) throws SQLException {
+        checkOpen();
+        StatementKey key = cacheKey(sql, resultSetType, resultSetConcurrency, 0, Statement.NO_GENERATED_KEYS);
+        PreparedStatement statement = key == null ? null : entry.statementCache().take(key);
+        if (statement == null) {
+            statement = delegate.prepareStatement(sql, resultSetType, resultSetConcurrency);
+        }
+        return track(new PooledPreparedStatement(this, statement, sql, key));
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, int autoGeneratedKeys) throws SQLException {
+        checkOpen();
+        StatementKey key = cacheKey(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY, 0, autoGeneratedKeys);
+        PreparedStatement statement = key == null ? null : entry.statementCache().take(key);
+        if (statement == null) {
+            statement = delegate.prepareStatement(sql, autoGeneratedKeys);
+        }
+        return track(new PooledPreparedStatement(this, statement, sql, key));
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql) throws SQLException {
+        checkOpen();
+        StatementKey key = cacheKey(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY, 0, Statement.NO_GENERATED_KEYS);
+        PreparedStatement statement = key == null ? null : entry.statementCache().take(key);
+        if (statement == null) {
+            statement = delegate.prepareStatement(sql);
+        }
+        return track(new PooledPreparedStatement(this, statement, sql, key));
+    }
+
+    @Override
+    public void releaseSavepoint(Savepoint savepoint) throws SQLException {
+        checkOpen();
+        delegate.releaseSavepoint(savepoint);
+    }
+
+    @Override
+    public void rollback() throws SQLException {
+        checkOpen();
+        delegate.rollback();
+    }
+
+    @Override
+    public void rollback(Savepoint savepoint) throws SQLException {
+        checkOpen();
+        delegate.rollback(savepoint);
+    }
+
+    @Override
+    public void setAutoCommit(boolean autoCommit) throws SQLException {
+        checkOpen();
+        delegate.setAutoCommit(autoCommit);
+        autoCommitDirty |= !autoCommit;
+    }
+
+    @Override
+    public void setCatalog(String catalog) throws SQLException {
+        checkOpen();
+        delegate.setCatalog(catalog);
+    }
+
+    @Override
+    public void setClientInfo(String name, String value) throws SQLClientInfoException {
+        checkClientInfoOpen();
+        delegate.setClientInfo(name, value);
+    }
+
+    @Override
+    public void setClientInfo(Properties properties) throws SQLClientInfoException {
+        checkClientInfoOpen();
+        delegate.setClientInfo(properties);
+    }
+
+    @Override
+    public void setHoldability(int holdability) throws SQLException {
+        checkOpen();
+        delegate.setHoldability(holdability);
+    }
+
+    @Override
+    public void setNetworkTimeout(Executor executor, int milliseconds) throws SQLException {
+        checkOpen();
+        delegate.setNetworkTimeout(executor, milliseconds);
+    }
+
+    @Override
+    public void setReadOnly(boolean readOnly) throws SQLException {
+        checkOpen();
+        delegate.setReadOnly(readOnly);
+        readOnlyDirty |= readOnly != entry.defaultReadOnly();
+    }
+
+    @Override
+    public Savepoint setSavepoint() throws SQLException {
+        checkOpen();
+        return delegate.setSavepoint();
+    }
+
+    @Override
+    public Savepoint setSavepoint(String name) throws SQLException {
+        checkOpen();
+        return delegate.setSavepoint(name);
+    }
+
+    @Override
+    public void setSchema(String schema) throws SQLException {
+        checkOpen();
+        delegate.setSchema(schema);
+    }
+
+    @Override
+    public void setShardingKey(ShardingKey shardingKey, ShardingKey superShardingKey) throws SQLException {
+        checkOpen();
+        delegate.setShardingKey(shardingKey, superShardingKey);
+    }
+
+    @Override
+    public void setShardingKey(ShardingKey shardingKey) throws SQLException {
+        checkOpen();
+        delegate.setShardingKey(shardingKey);
+    }
+
+    @Override
+    public boolean setShardingKeyIfValid(ShardingKey shardingKey, int timeout) throws SQLException {
+        checkOpen();
+        return delegate.setShardingKeyIfValid(shardingKey, timeout);
+    }
+
+    @Override
+    public boolean setShardingKeyIfValid(ShardingKey shardingKey, ShardingKey superShardingKey, int timeout) throws SQLException {
+        checkOpen();
+        return delegate.setShardingKeyIfValid(shardingKey, superShardingKey, timeout);
+    }
+
+    @Override
+    public void setTransactionIsolation(int level) throws SQLException {
+        checkOpen();
+        delegate.setTransactionIsolation(level);
+        isolationDirty |= level != entry.defaultTransactionIsolation();
+    }
+
+    @Override
+    public void setTypeMap(Map<String, Class<?>> map) throws SQLException {
+        checkOpen();
+        delegate.setTypeMap(map);
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        checkOpen();
+        return iface.isInstance(this) ? iface.cast(this) : delegate.unwrap(iface);
+    }
+
+    @Override
+    public String toString() {
+        return "PooledConnection[" + delegate + (closed ? ", closed]" : "]");
+    }
+
+    PooledConnection retain() {
+        borrowers++;
+        return this;
+    }
+
+    <S extends Statement> S track(S statement) {
+        statements.add(statement);
+        return statement;
+    }
+
+    void untrack(Statement statement) {
+        for (int i = statements.size() - 1; i >= 0; i--) {
+            if (statements.get(i) == statement) {
+                statements.remove(i);
+                return;
+            }
+        }
+    }
+
+    StatementCache statementCache() {
+        return entry.statementCache();
+    }
+
+    private StatementKey cacheKey(String sql, int resultSetType, int concurrency, int holdability, int autoGeneratedKeys) {
+        return entry.statementCache().isEnabled()
+                ? new StatementKey(sql, resultSetType, concurrency, holdability, autoGeneratedKeys)
+                : null;
+    }
+
+    private void closeStatements() throws SQLException {
+        SQLException failure = null;
+        while (!statements.isEmpty()) {
+            Statement statement = statements.remove(statements.size() - 1);
+            try {
+                statement.close();
+            } catch (SQLException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void resetState() throws SQLException {
+        if (autoCommitDirty && !delegate.getAutoCommit()) {
+            delegate.rollback();
+            delegate.setAutoCommit(true);
+        }
+        if (readOnlyDirty) {
+            delegate.setReadOnly(entry.defaultReadOnly());
+        }
+        if (isolationDirty) {
+            delegate.setTransactionIsolation(entry.defaultTransactionIsolation());
+        }
+    }
+
+    private void checkOpen() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection is closed");
+        }
+    }
+
+    private void checkClientInfoOpen() throws SQLClientInfoException {
+        if (closed) {
+            throw new SQLClientInfoException("Connection is closed", Map.of());
+        }
+    }
+}
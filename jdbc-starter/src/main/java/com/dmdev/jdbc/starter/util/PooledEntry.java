@@ -0,0 +1,89 @@
+package com.dmdev.jdbc.starter.util;
+
+import java.sql.Connection;
+import java.util.concurrent.atomic.AtomicInteger;
+
+final class PooledEntry {
+
+    static final int NOT_IN_USE = 0;
+    static final int IN_USE = 1;
+    static final int RESERVED = 2;
+    static final int REMOVED = -1;
+
+    private final Connection connection;
+    private final StatementCache statementCache;
+    private final AtomicInteger state = new AtomicInteger(NOT_IN_USE);
+    private final boolean defaultReadOnly;
+    private final int defaultTransactionIsolation;
+    private volatile long lastUsedNanos;
+    private volatile long borrowedNanos;
+    private volatile Throwable borrowTrace;
+    private volatile boolean leakReported;
+
+    PooledEntry(Connection connection, StatementCache statementCache, boolean defaultReadOnly, int defaultTransactionIsolation) {
+        this.connection = connection;
+        this.statementCache = statementCache;
+        this.defaultReadOnly = defaultReadOnly;
+        this.defaultTransactionIsolation = defaultTransactionIsolation;
+        this.lastUsedNanos = System.nanoTime();
+    }
+
+    Connection connection() {
+        return connection;
+    }
+
+    StatementCache statementCache() {
+        return statementCache;
+    }
+
+    boolean defaultReadOnly() {
+        return defaultReadOnly;
+    }
+
+    int defaultTransactionIsolation() {
+        return defaultTransactionIsolation;
+    }
+
+    int state() {
+        return state.get();
+    }
+
+    boolean compareAndSetState(int expected, int newState) {
+        return state.compareAndSet(expected, newState);
+    }
+
+    void setState(int newState) {
+        state.set(newState);
+    }
+
+    void markBorrowed(Throwable borrowTrace) {
+        this.borrowedNanos = System.nanoTime();
+        this.borrowTrace = borrowTrace;
+        this.leakReported = false;
+    }
+
+    void markReturned() {
+        borrowTrace = null;
+        lastUsedNanos = System.nanoTime();
+    }
+
+    long lastUsedNanos() {
+        return lastUsedNanos;
+    }
+
+    long borrowedNanos() {
+        return borrowedNanos;
+    }
+
+    Throwable borrowTrace() {
+        return borrowTrace;
+    }
+
+    boolean markLeakReported() {
+        if (leakReported) {
+            return false;
+        }
+        leakReported = true;
+        return true;
+    }
+}
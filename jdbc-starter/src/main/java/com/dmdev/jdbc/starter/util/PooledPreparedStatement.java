@@ -0,0 +1,490 @@
+package com.dmdev.jdbc.starter.util;
+
+import com.dmdev.jdbc.starter.util.StatementCache.StatementKey;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.net.URL;
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Date;
+import java.sql.NClob;
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.Ref;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.RowId;
+import java.sql.SQLException;
+import java.sql.SQLType;
+import java.sql.SQLXML;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Calendar;
+
+class PooledPreparedStatement extends PooledStatement implements PreparedStatement {
+
+    private final PooledConnection connection;
+    private final PreparedStatement delegate;
+    private final String sql;
+    private final StatementKey cacheKey;
+    private final BoundParameters parameters = new BoundParameters();
+
+    PooledPreparedStatement(PooledConnection connection, PreparedStatement delegate, String sql, StatementKey cacheKey) {
+        super(connection, delegate);
+        this.connection = connection;
+        this.delegate = delegate;
+        this.sql = sql;
+        this.cacheKey = cacheKey;
+    }
+
+    @Override
+    public void addBatch() throws SQLException {
+        checkOpen();
+        delegate.addBatch();
+    }
+
+    @Override
+    public void clearParameters() throws SQLException {
+        checkOpen();
+        delegate.clearParameters();
+        parameters.clear();
+    }
+
+    @Override
+    public boolean execute() throws SQLException {
+        checkOpen();
+        long startNanos = TRACER.start();
+        try {
+            boolean result = delegate.execute();
+            trace(sql, startNanos, -1, false);
+            return result;
+        } catch (SQLException e) {
+            trace(sql, startNanos, 0, true);
+            throw e;
+        }
+    }
+
+    @Override
+    public long executeLargeUpdate() throws SQLException {
+        checkOpen();
+        long startNanos = TRACER.start();
+        try {
+            long result = delegate.executeLargeUpdate();
+            trace(sql, startNanos, result, false);
+            return result;
+        } catch (SQLException e) {
+            trace(sql, startNanos, 0, true);
+            throw e;
+        }
+    }
+
+    @Override
+    public ResultSet executeQuery() throws SQLException {
+        checkOpen();
+        long startNanos = TRACER.start();
+        try {
+            return wrap(delegate.executeQuery(), sql, startNanos);
+        } catch (SQLException e) {
+            trace(sql, startNanos, 0, true);
+            throw e;
+        }
+    }
+
+    @Override
+    public int executeUpdate() throws SQLException {
+        checkOpen();
+        long startNanos = TRACER.start();
+        try {
+            int result = delegate.executeUpdate();
+            trace(sql, startNanos, result, false);
+            return result;
+        } catch (SQLException e) {
+            trace(sql, startNanos, 0, true);
+            throw e;
+        }
+    }
+
+    @Override
+    public ResultSetMetaData getMetaData() throws SQLException {
+        checkOpen();
+        return delegate.getMetaData();
+    }
+
+    @Override
+    public ParameterMetaData getParameterMetaData() throws SQLException {
+        checkOpen();
+        return delegate.getParameterMetaData();
+    }
+
+    @Override
+    public void setArray(int parameterIndex, Array x) throws SQLException {
+        checkOpen();
+        delegate.setArray(parameterIndex, x);
+        parameters.set(parameterIndex, x);
+    }
+
+    @Override
+    public void setAsciiStream(int parameterIndex, InputStream x, int length) throws SQLException {
+        checkOpen();
+        delegate.setAsciiStream(parameterIndex, x, length);
+        parameters.set(parameterIndex, x);
+    }
+
+    @Override
+    public void setAsciiStream(int parameterIndex, InputStream x, long length) throws SQLException {
+        checkOpen();
+        delegate.setAsciiStream(parameterIndex, x, length);
+        parameters.set(parameterIndex, x);
+    }
+
+    @Override
+    public void setAsciiStream(int parameterIndex, InputStream x) throws SQLException {
+        checkOpen();
+        delegate.setAsciiStream(parameterIndex, x);
+        parameters.set(parameterIndex, x);
+    }
+
+    @Override
+    public void setBigDecimal(int parameterIndex, BigDecimal x) throws SQLException {
+        checkOpen();
+        delegate.setBigDecimal(parameterIndex, x);
+        parameters.set(parameterIndex, x);
+    }
+
+    @Override
+    public void setBinaryStream(int parameterIndex, InputStream x, int length) throws SQLException {
+        checkOpen();
+        delegate.setBinaryStream(parameterIndex, x, length);
+        parameters.set(parameterIndex, x);
+    }
+
+    @Override
+    public void setBinaryStream(int parameterIndex, InputStream x, long length) throws SQLException {
+        checkOpen();
+        delegate.setBinaryStream(parameterIndex, x, length);
+        parameters.set(parameterIndex, x);
+    }
+
+    @Override
+    public void setBinaryStream(int parameterIndex, InputStream x) throws SQLException {
+        checkOpen();
+        delegate.setBinaryStream(parameterIndex, x);
+        parameters.set(parameterIndex, x);
+    }
+
+    @Override
+    public void setBlob(int parameterIndex, InputStream x, long length) throws SQLException {
+        checkOpen();
+        delegate.setBlob(parameterIndex, x, length);
+        parameters.set(parameterIndex, x);
+    }
+
+    @Override
+    public void setBlob(int parameterIndex, InputStream x) throws SQLException {
+        checkOpen();
+        delegate.setBlob(parameterIndex, x);
+        parameters.set(parameterIndex, x);
+    }
+
+    @Override
+    public void setBlob(int parameterIndex, Blob x) throws SQLException {
+        checkOpen();
+        delegate.setBlob(parameterIndex, x);
+        parameters.set(parameterIndex, x);
+    }
+
+    @Override
+    public void setBoolean(int parameterIndex, boolean x) throws SQLException {
+        checkOpen();
+        delegate.setBoolean(parameterIndex, x);
+        parameters.set(parameterIndex, x);
+    }
+
+    @Override
+    public void setByte(int parameterIndex, byte x) throws SQLException {
+        checkOpen();
+        delegate.setByte(parameterIndex, x);
+        parameters.set(parameterIndex, x);
+    }
+
+    @Override
+    public void setBytes(int parameterIndex, byte[] x) throws SQLException {
+        checkOpen();
+        delegate.setBytes(parameterIndex, x);
+        parameters.set(parameterIndex, x);
+    }
+
+    @Override
+    public void setCharacterStream(int parameterIndex, Reader x, int length) throws SQLException {
+        checkOpen();
+        delegate.setCharacterStream(parameterIndex, x, length);
+        parameters.set(parameterIndex, x);
+    }
+
+    @Override
+    public void setCharacterStream(int parameterIndex, Reader x, long length) throws SQLException {
+        checkOpen();
+        delegate.setCharacterStream(parameterIndex, x, length);
+        parameters.set(parameterIndex, x);
+    }
+
+    @Override
+    public void setCharacterStream(int parameterIndex, Reader x) throws SQLException {
+        checkOpen();
+        delegate.setCharacterStream(parameterIndex, x);
+        parameters.set(parameterIndex, x);
+    }
+
+    @Override
+    public void setClob(int parameterIndex, Reader x, long length) throws SQLException {
+        checkOpen();
+        delegate.setClob(parameterIndex, x, length);
+        parameters.set(parameterIndex, x);
+    }
+
+    @Override
+    public void setClob(int parameterIndex, Reader x) throws SQLException {
+        checkOpen();
+        delegate.setClob(parameterIndex, x);
+        parameters.set(parameterIndex, x);
+    }
+
+    @Override
+    public void setClob(int parameterIndex, Clob x) throws SQLException {
+        checkOpen();
+        delegate.setClob(parameterIndex, x);
+        parameters.set(parameterIndex, x);
+    }
+
+    @Override
+    public void setDate(int parameterIndex, Date x, Calendar cal) throws SQLException {
+        checkOpen();
+        delegate.setDate(parameterIndex, x, cal);
+        parameters.set(parameterIndex, x);
+    }
+
+    @Override
+    public void setDate(int parameterIndex, Date x) throws SQLException {
+        checkOpen();
+        delegate.setDate(parameterIndex, x);
+        parameters.set(parameterIndex, x);
+    }
+
+    @Override
+    public void setDouble(int parameterIndex, double x) throws SQLException {
+        checkOpen();
+        delegate.setDouble(parameterIndex, x);
+        parameters.set(parameterIndex, x);
+    }
+
+    @Override
+    public void setFloat(int parameterIndex, float x) throws SQLException {
+        checkOpen();
+        delegate.setFloat(parameterIndex, x);
+        parameters.set(parameterIndex, x);
+    }
+
+    @Override
+    public void setInt(int parameterIndex, int x) throws SQLException {
+        checkOpen();
+        delegate.setInt(parameterIndex, x);
+        parameters.set(parameterIndex, x);
+    }
+
+    @Override
+    public void setLong(int parameterIndex, long x) throws SQLException {
+        checkOpen();
+        delegate.setLong(parameterIndex, x);
+        parameters.set(parameterIndex, x);
+    }
+
+    @Override
+    public void setNCharacterStream(int parameterIndex, Reader x, long length) throws SQLException {
+        checkOpen();
+        delegate.setNCharacterStream(parameterIndex, x, length);
+        parameters.set(parameterIndex, x);
+    }
+
+    @Override
+    public void setNCharacterStream(int parameterIndex, Reader x) throws SQLException {
+        checkOpen();
+        delegate.setNCharacterStream(parameterIndex, x);
+        parameters.set(parameterIndex, x);
+    }
+
+    @Override
+    public void setNClob(int parameterIndex, Reader x, long length) throws SQLException {
+        checkOpen();
+        delegate.setNClob(parameterIndex, x, length);
+        parameters.set(parameterIndex, x);
+    }
+
+    @Override
+    public void setNClob(int parameterIndex, Reader x) throws SQLException {
+        checkOpen();
+        delegate.setNClob(parameterIndex, x);
+        parameters.set(parameterIndex, x);
+    }
+
+    @Override
+    public void setNClob(int parameterIndex, NClob x) throws SQLException {
+        checkOpen();
+        delegate.setNClob(parameterIndex, x);
+        parameters.set(parameterIndex, x);
+    }
+
+    @Override
+    public void setNString(int parameterIndex, String x) throws SQLException {
+        checkOpen();
+        delegate.setNString(parameterIndex, x);
+        parameters.set(parameterIndex, x);
+    }
+
+    @Override
+    public void setNull(int parameterIndex, int sqlType, String typeName) throws SQLException {
+        checkOpen();
+        delegate.setNull(parameterIndex, sqlType, typeName);
+        parameters.set(parameterIndex, null);
+    }
+
+    @Override
+    public void setNull(int parameterIndex, int sqlType) throws SQLException {
+        checkOpen();
+        delegate.setNull(parameterIndex, sqlType);
+        parameters.set(parameterIndex, null);
+    }
+
+    @Override
+    public void setObject(int parameterIndex, Object x, int targetSqlType, int scaleOrLength) throws SQLException {
+        checkOpen();
+        delegate.setObject(parameterIndex, x, targetSqlType, scaleOrLength);
+        parameters.set(parameterIndex, x);
+    }
+
+    @Override
+    public void setObject(int parameterIndex, Object x, int targetSqlType) throws SQLException {
+        checkOpen();
+        delegate.setObject(parameterIndex, x, targetSqlType);
+        parameters.set(parameterIndex, x);
+    }
+
+    @Override
+    public void setObject(int parameterIndex, Object x, SQLType targetSqlType, int scaleOrLength) throws SQLException {
+        checkOpen();
+        delegate.setObject(parameterIndex, x, targetSqlType, scaleOrLength);
+        parameters.set(parameterIndex, x);
+    }
+
+    @Override
+    public void setObject(int parameterIndex, Object x, SQLType targetSqlType) throws SQLException {
+        checkOpen();
+        delegate.setObject(parameterIndex, x, targetSqlType);
+        parameters.set(parameterIndex, x);
+    }
+
+    @Override
+    public void setObject(int parameterIndex, Object x) throws SQLException {
+        checkOpen();
+        delegate.setObject(parameterIndex, x);
+        parameters.set(parameterIndex, x);
+    }
+
+    @Override
+    public void setRef(int parameterIndex, Ref x) throws SQLException {
+        checkOpen();
+        delegate.setRef(parameterIndex, x);
+        parameters.set(parameterIndex, x);
+    }
+
+    @Override
+    public void setRowId(int parameterIndex, RowId x) throws SQLException {
+        checkOpen();
+        delegate.setRowId(parameterIndex, x);
+        parameters.set(parameterIndex, x);
+    }
+
+    @Override
+    public void setSQLXML(int parameterIndex, SQLXML x) throws SQLException {
+        checkOpen();
+        delegate.setSQLXML(parameterIndex, x);
+        parameters.set(parameterIndex, x);
+    }
+
+    @Override
+    public void setShort(int parameterIndex, short x) throws SQLException {
+        checkOpen();
+        delegate.setShort(parameterIndex, x);
+        parameters.set(parameterIndex, x);
+    }
+
+    @Override
+    public void setString(int parameterIndex, String x) throws SQLException {
+        checkOpen();
+        delegate.setString(parameterIndex, x);
+        parameters.set(parameterIndex, x);
+    }
+
+    @Override
+    public void setTime(int parameterIndex, Time x, Calendar cal) throws SQLException {
+        checkOpen();
+        delegate.setTime(parameterIndex, x, cal);
+        parameters.set(parameterIndex, x);
+    }
+
+    @Override
+    public void setTime(int parameterIndex, Time x) throws SQLException {
+        checkOpen();
+        delegate.setTime(parameterIndex, x);
+        parameters.set(parameterIndex, x);
+    }
+
+    @Override
+    public void setTimestamp(int parameterIndex, Timestamp x, Calendar cal) throws SQLException {
+        checkOpen();
+        delegate.setTimestamp(parameterIndex, x, cal);
+        parameters.set(parameterIndex, x);
+    }
+
+    @Override
+    public void setTimestamp(int parameterIndex, Timestamp x) throws SQLException {
+        checkOpen();
+        delegate.setTimestamp(parameterIndex, x);
+        parameters.set(parameterIndex, x);
+    }
+
+    @Override
+    public void setURL(int parameterIndex, URL x) throws SQLException {
+        checkOpen();
+        delegate.setURL(parameterIndex, x);
+        parameters.set(parameterIndex, x);
+    }
+
+    @Override
+    public void setUnicodeStream(int parameterIndex, InputStream x, int length) throws SQLException {
+        checkOpen();
+        delegate.setUnicodeStream(parameterIndex, x, length);
+        parameters.set(parameterIndex, x);
+    }
+
+    @Override
+    String sql() {
+        return sql;
+    }
+
+    @Override
+    Object[] parameters() {
+        return parameters.snapshot();
+    }
+
+    @Override
+    void closeDelegate() throws SQLException {
+        if (cacheKey == null) {
+            delegate.close();
+        } else {
+            connection.statementCache().recycle(cacheKey, delegate);
+        }
+    }
+}
@@ -0,0 +1,544 @@
+package com.dmdev.jdbc.starter.util;
+
+import com.dmdev.jdbc.starter.trace.QueryTracer;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+class PooledStatement implements Statement {
+
+    static final QueryTracer TRACER = QueryTracer.getInstance();
+
+    private final PooledConnection connection;
+    private final Statement delegate;
+    private final List<PooledResultSet> resultSets = new ArrayList<>(1);
+    private final String operation = QueryTracer.currentOperation();
+    private boolean closed;
+    private boolean closeOnCompletion;
+
+    PooledStatement(PooledConnection connection, Statement delegate) {
+        this.connection = connection;
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void addBatch(String sql) throws SQLException {
+        checkOpen();
+        delegate.addBatch(sql);
+    }
+
+    @Override
+    public void cancel() throws SQLException {
+        checkOpen();
+        delegate.cancel();
+    }
+
+    @Override
+    public void clearBatch() throws SQLException {
+        checkOpen();
+        delegate.clearBatch();
+    }
+
+    @Override
+    public void clearWarnings() throws SQLException {
+        checkOpen();
+        delegate.clearWarnings();
+    }
+
+    @Override
+    public void close() throws SQLException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            closeResultSets();
+        } finally {
+            connection.untrack(this);
+            closeDelegate();
+        }
+    }
+
+    @Override
+    public void closeOnCompletion() throws SQLException {
+        checkOpen();
+        closeOnCompletion = true;
+    }
+
+    @Override
+    public boolean execute(String sql, int[] columnIndexes) throws SQLException {
+        checkOpen();
+        long startNanos = TRACER.start();
+        try {
+            boolean result = delegate.execute(sql, columnIndexes);
+            trace(sql, startNanos, -1, false);
+            return result;
+        } catch (SQLException e) {
+            trace(sql, startNanos, 0, true);
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean execute(String sql, String[] columnNames) throws SQLException {
+        checkOpen();
+        long startNanos = TRACER.start();
+        try {
+            boolean result = delegate.execute(sql, columnNames);
+            trace(sql, startNanos, -1, false);
+            return result;
+        } catch (SQLException e) {
+            trace(sql, startNanos, 0, true);
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean execute(String sql, int autoGeneratedKeys) throws SQLException {
+        checkOpen();
+        long startNanos = TRACER.start();
+        try {
+            boolean result = delegate.execute(sql, autoGeneratedKeys);
+            trace(sql, startNanos, -1, false);
+            return result;
+        } catch (SQLException e) {
+            trace(sql, startNanos, 0, true);
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean execute(String sql) throws SQLException {
+        checkOpen();
+        long startNanos = TRACER.start();
+        try {
+            boolean result = delegate.execute(sql);
+            trace(sql, startNanos, -1, false);
+            return result;
+        } catch (SQLException e) {
+            trace(sql, startNanos, 0, true);
+            throw e;
+        }
+    }
+
+    @Override
+    public int[] executeBatch() throws SQLException {
+        checkOpen();
+        long startNanos = TRACER.start();
+        try {
+            int[] result = delegate.executeBatch();
+            trace(sql(), startNanos, updated(result), false);
+            return result;
+        } catch (SQLException e) {
+            trace(sql(), startNanos, 0, true);
+            throw e;
+        }
+    }
+
+    @Override
+    public long[] executeLargeBatch() throws SQLException {
+        checkOpen();
+        long startNanos = TRACER.start();
+        try {
+            long[] result = delegate.executeLargeBatch();
+            trace(sql(), startNanos, updated(result), false);
+            return result;
+        } catch (SQLException e) {
+            trace(sql(), startNanos, 0, true);
+            throw e;
+        }
+    }
+
+    @Override
+    public long executeLargeUpdate(String sql, int[] columnIndexes) throws SQLException {
+        checkOpen();
+        long startNanos = TRACER.start();
+        try {
+            long result = delegate.executeLargeUpdate(sql, columnIndexes);
+            trace(sql, startNanos, result, false);
+            return result;
+        } catch (SQLException e) {
+            trace(sql, startNanos, 0, true);
+            throw e;
+        }
+    }
+
+    @Override
+    public long executeLargeUpdate(String sql, String[] columnNames) throws SQLException {
+        checkOpen();
+        long startNanos = TRACER.start();
+        try {
+            long result = delegate.executeLargeUpdate(sql, columnNames);
+            trace(sql, startNanos, result, false);
+            return result;
+        } catch (SQLException e) {
+            trace(sql, startNanos, 0, true);
+            throw e;
+        }
+    }
+
+    @Override
+    public long executeLargeUpdate(String sql, int autoGeneratedKeys) throws SQLException {
+        checkOpen();
+        long startNanos = TRACER.start();
+        try {
+            long result = delegate.executeLargeUpdate(sql, autoGeneratedKeys);
+            trace(sql, startNanos, result, false);
+            return result;
+        } catch (SQLException e) {
+            trace(sql, startNanos, 0, true);
+            throw e;
+        }
+    }
+
+    @Override
+    public long executeLargeUpdate(String sql) throws SQLException {
+        checkOpen();
+        long startNanos = TRACER.start();
+        try {
+            long result = delegate.executeLargeUpdate(sql);
+            trace(sql, startNanos, result, false);
+            return result;
+        } catch (SQLException e) {
+            trace(sql, startNanos, 0, true);
+            throw e;
+        }
+    }
+
+    @Override
+    public ResultSet executeQuery(String sql) throws SQLException {
+        checkOpen();
+        long startNanos = TRACER.start();
+        try {
+            return wrap(delegate.executeQuery(sql), sql, startNanos);
+        } catch (SQLException e) {
+            trace(sql, startNanos, 0, true);
+            throw e;
+        }
+    }
+
+    @Override
+    public int executeUpdate(String sql, int[] columnIndexes) throws SQLException {
+        checkOpen();
+        long startNanos = TRACER.start();
+        try {
+            int result = delegate.executeUpdate(sql, columnIndexes);
+            trace(sql, startNanos, result, false);
+            return result;
+        } catch (SQLException e) {
+            trace(sql, startNanos, 0, true);
+            throw e;
+        }
+    }
+
+    @Override
+    public int executeUpdate(String sql, String[] columnNames) throws SQLException {
+        checkOpen();
+        long startNanos = TRACER.start();
+        try {
+            int result = delegate.executeUpdate(sql, columnNames);
+            trace(sql, startNanos, result, false);
+            return result;
+        } catch (SQLException e) {
+            trace(sql, startNanos, 0, true);
+            throw e;
+        }
+    }
+
+    @Override
+    public int executeUpdate(String sql, int autoGeneratedKeys) throws SQLException {
+        checkOpen();
+        long startNanos = TRACER.start();
+        try {
+            int result = delegate.executeUpdate(sql, autoGeneratedKeys);
+            trace(sql, startNanos, result, false);
+            return result;
+        } catch (SQLException e) {
+            trace(sql, startNanos, 0, true);
+            throw e;
+        }
+    }
+
+    @Override
+    public int executeUpdate(String sql) throws SQLException {
+        checkOpen();
+        long startNanos = TRACER.start();
+        try {
+            int result = delegate.executeUpdate(sql);
+            trace(sql, startNanos, result, false);
+            return result;
+        } catch (SQLException e) {
+            trace(sql, startNanos, 0, true);
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        checkOpen();
+        return connection;
+    }
+
+    @Override
+    public int getFetchDirection() throws SQLException {
+        checkOpen();
+        return delegate.getFetchDirection();
+    }
+
+    @Override
+    public int getFetchSize() throws SQLException {
+        checkOpen();
+        return delegate.getFetchSize();
+    }
+
+    @Override
+    public ResultSet getGeneratedKeys() throws SQLException {
+        checkOpen();
+        return wrap(delegate.getGeneratedKeys(), null, 0);
+    }
+
+    @Override
+    public long getLargeMaxRows() throws SQLException {
+        checkOpen();
+        return delegate.getLargeMaxRows();
+    }
+
+    @Override
+    public long getLargeUpdateCount() throws SQLException {
+        checkOpen();
+        return delegate.getLargeUpdateCount();
+    }
+
+    @Override
+    public int getMaxFieldSize() throws SQLException {
+        checkOpen();
+        return delegate.getMaxFieldSize();
+    }
+
+    @Override
+    public int getMaxRows() throws SQLException {
+        checkOpen();
+        return delegate.getMaxRows();
+    }
+
+    @Override
+    public boolean getMoreResults() throws SQLException {
+        checkOpen();
+        return delegate.getMoreResults();
+    }
+
+    @Override
+    public boolean getMoreResults(int current) throws SQLException {
+        checkOpen();
+        return delegate.getMoreResults(current);
+    }
+
+    @Override
+    public int getQueryTimeout() throws SQLException {
+        checkOpen();
+        return delegate.getQueryTimeout();
+    }
+
+    @Override
+    public ResultSet getResultSet() throws SQLException {
+        checkOpen();
+        ResultSet resultSet = delegate.getResultSet();
+        return resultSet == null ? null : wrap(resultSet, null, 0);
+    }
+
+    @Override
+    public int getResultSetConcurrency() throws SQLException {
+        checkOpen();
+        return delegate.getResultSetConcurrency();
+    }
+
+    @Override
+    public int getResultSetHoldability() throws SQLException {
+        checkOpen();
+        return delegate.getResultSetHoldability();
+    }
+
+    @Override
+    public int getResultSetType() throws SQLException {
+        checkOpen();
+        return delegate.getResultSetType();
+    }
+
+    @Override
+    public int getUpdateCount() throws SQLException {
+        checkOpen();
+        return delegate.getUpdateCount();
+    }
+
+    @Override
+    public SQLWarning getWarnings() throws SQLException {
+        checkOpen();
+        return delegate.getWarnings();
+    }
+
+    @Override
+    public boolean isCloseOnCompletion() throws SQLException {
+        checkOpen();
+        return closeOnCompletion;
+    }
+
+    @Override
+    public boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public boolean isPoolable() throws SQLException {
+        checkOpen();
+        return delegate.isPoolable();
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        checkOpen();
+        return iface.isInstance(this) || delegate.isWrapperFor(iface);
+    }
+
+    @Override
+    public void setCursorName(String name) throws SQLException {
+        checkOpen();
+        delegate.setCursorName(name);
+    }
+
+    @Override
+    public void setEscapeProcessing(boolean enable) throws SQLException {
+        checkOpen();
+        delegate.setEscapeProcessing(enable);
+    }
+
+    @Override
+    public void setFetchDirection(int direction) throws SQLException {
+        checkOpen();
+        delegate.setFetchDirection(direction);
+    }
+
+    @Override
+    public void setFetchSize(int rows) throws SQLException {
+        checkOpen();
+        delegate.setFetchSize(rows);
+    }
+
+    @Override
+    public void setLargeMaxRows(long max) throws SQLException {
+        checkOpen();
+        delegate.setLargeMaxRows(max);
+    }
+
+    @Override
+    public void setMaxFieldSize(int max) throws SQLException {
+        checkOpen();
+        delegate.setMaxFieldSize(max);
+    }
+
+    @Override
+    public void setMaxRows(int max) throws SQLException {
+        checkOpen();
+        delegate.setMaxRows(max);
+    }
+
+    @Override
+    public void setPoolable(boolean poolable) throws SQLException {
+        checkOpen();
+        delegate.setPoolable(poolable);
+    }
+
+    @Override
+    public void setQueryTimeout(int seconds) throws SQLException {
+        checkOpen();
+        delegate.setQueryTimeout(seconds);
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        checkOpen();
+        return iface.isInstance(this) ? iface.cast(this) : delegate.unwrap(iface);
+    }
+
+    @Override
+    public String toString() {
+        return delegate.toString();
+    }
+
+    /**
+     * Wraps a result set; when {@code startNanos} is set the query is traced once the result set
+     * is exhausted or closed, with the number of rows read. The traced time is the execution plus
+     * the time spent in {@link ResultSet#next()}, which includes cursor fetches but not the caller's
+     * work on each row, so a slowly consumed stream is not reported as a slow query.
+     */
+    ResultSet wrap(ResultSet resultSet, String sql, long startNanos) {
+        long executeNanos = startNanos == 0 ? 0 : System.nanoTime() - startNanos;
+        PooledResultSet pooled = new PooledResultSet(this, resultSet, sql, startNanos != 0, executeNanos);
+        resultSets.add(pooled);
+        return pooled;
+    }
+
+    void trace(String sql, long startNanos, long rows, boolean failed) {
+        if (startNanos == 0) {
+            return;
+        }
+        traceElapsed(sql, System.nanoTime() - startNanos, rows, failed);
+    }
+
+    void traceElapsed(String sql, long elapsedNanos, long rows, boolean failed) {
+        if (TRACER.shouldRecord(elapsedNanos, failed)) {
+            TRACER.record(operation, sql, TRACER.recordsParameters() ? parameters() : null, elapsedNanos, rows, failed);
+        }
+    }
+
+    String sql() {
+        return null;
+    }
+
+    Object[] parameters() {
+        return BoundParameters.NONE;
+    }
+
+    void resultSetClosed(PooledResultSet resultSet) throws SQLException {
+        resultSets.remove(resultSet);
+        if (closeOnCompletion && resultSets.isEmpty()) {
+            close();
+        }
+    }
+
+    void closeDelegate() throws SQLException {
+        delegate.close();
+    }
+
+    void checkOpen() throws SQLException {
+        if (closed) {
+            throw new SQLException("Statement is closed");
+        }
+    }
+
+    private static long updated(int[] counts) {
+        long rows = 0;
+        for (int count : counts) {
+            rows += Math.max(count, 0);
+        }
+        return rows;
+    }
+
+    private static long updated(long[] counts) {
+        long rows = 0;
+        for (long count : counts) {
+            rows += Math.max(count, 0);
+        }
+        return rows;
+    }
+
+    private void closeResultSets() throws SQLException {
+        while (!resultSets.isEmpty()) {
+            resultSets.remove(resultSets.size() - 1).closeQuietly();
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.dmdev.jdbc.starter.util;
+
+/**
+ * How a {@link TransactionTemplate} relates to a transaction already bound to the calling thread.
+ */
+public enum Propagation {
+
+    /**
+     * Join the current transaction, or start one when there is none.
+     */
+    REQUIRED,
+
+    /**
+     * Suspend the current transaction and run in a new one on a separate connection.
+     */
+    REQUIRES_NEW,
+
+    /**
+     * Run inside the current transaction behind a savepoint, so a failure rolls back only this scope;
+     * start a new transaction when there is none.
+     */
+    NESTED
+}
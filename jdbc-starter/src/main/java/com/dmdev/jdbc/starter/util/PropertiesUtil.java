@@ -18,10 +18,30 @@ public final class PropertiesUtil {
 
     public static String get(String key) {
 
-        String property = PROPERTIES.getProperty(key);
+        String property = System.getProperty(key, PROPERTIES.getProperty(key));
         return property;
     }
 
+    public static int getInt(String key, int defaultValue) {
+        String value = get(key);
+        return value == null ? defaultValue : Integer.parseInt(value.trim());
+    }
+
+    public static long getLong(String key, long defaultValue) {
+        String value = get(key);
+        return value == null ? defaultValue : Long.parseLong(value.trim());
+    }
+
+    public static double getDouble(String key, double defaultValue) {
+        String value = get(key);
+        return value == null ? defaultValue : Double.parseDouble(value.trim());
+    }
+
+    public static boolean getBoolean(String key, boolean defaultValue) {
+        String value = get(key);
+        return value == null ? defaultValue : Boolean.parseBoolean(value.trim());
+    }
+
     private static void loadProperties() {
         try(InputStream inputStream =
                     PropertiesUtil.class.getClassLoader().getResourceAsStream("application.properties")) {
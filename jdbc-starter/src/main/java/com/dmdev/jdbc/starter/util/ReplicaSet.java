@@ -0,0 +1,169 @@
+package com.dmdev.jdbc.starter.util;
+
+import com.dmdev.jdbc.starter.exception.ConnectionPoolException;
+import com.dmdev.jdbc.starter.metrics.Counter;
+import com.dmdev.jdbc.starter.metrics.MetricsRegistry;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static java.lang.System.Logger.Level.INFO;
+import static java.lang.System.Logger.Level.WARNING;
+
+/**
+ * Read replicas behind {@link ConnectionPoolManager#getForRead()}, one pool each. A replica whose
+ * replay lag exceeds {@code db.replica.max.lag.ms}, or whose pool fails to hand out a connection,
+ * is skipped until a later lag check succeeds or {@code db.replica.retry.ms} has passed; when no
+ * replica is usable the read goes to the primary.
+ */
+final class ReplicaSet implements AutoCloseable {
+
+    private static final System.Logger LOGGER = System.getLogger(ReplicaSet.class.getName());
+
+    private static final String LAG_SQL = """
+            SELECT CASE
+                       WHEN NOT pg_is_in_recovery() OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                       ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0)
+                   END
+            """;
+
+    private final List<Replica> replicas;
+    private final Balancing balancing;
+    private final long maxLagMillis;
+    private final long retryNanos;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Counter reads;
+    private final Counter fallbacks;
+    private final ScheduledExecutorService lagChecker;
+
+    ReplicaSet(List<ConnectionPool> pools, Balancing balancing, long maxLagMillis, long retryMillis, long checkIntervalMillis) {
+        this.replicas = pools.stream().map(Replica::new).toList();
+        this.balancing = balancing;
+        this.maxLagMillis = maxLagMillis;
+        this.retryNanos = TimeUnit.MILLISECONDS.toNanos(retryMillis);
+
+        MetricsRegistry registry = MetricsRegistry.getInstance();
+        this.reads = registry.counter("replica.reads");
+        this.fallbacks = registry.counter("replica.fallbacks");
+        for (Replica replica : replicas) {
+            registry.gauge("replica." + replica.pool.name() + ".lag.ms", () -> replica.lagMillis);
+        }
+
+        this.lagChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-lag-checker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        lagChecker.scheduleWithFixedDelay(this::checkLag, 0, checkIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    Connection get(Supplier<Connection> primary) {
+        for (int attempt = 0; attempt < replicas.size(); attempt++) {
+            Replica replica = choose(System.nanoTime());
+            if (replica == null) {
+                break;
+            }
+            try {
+                Connection connection = replica.pool.get();
+                reads.increment();
+                return connection;
+            } catch (ConnectionPoolException e) {
+                replica.markDown(System.nanoTime() + retryNanos);
+                LOGGER.log(WARNING, "Replica " + replica.pool.name() + " is unavailable", e);
+            }
+        }
+        fallbacks.increment();
+        return primary.get();
+    }
+
+    private Replica choose(long now) {
+        if (balancing == Balancing.LEAST_BUSY) {
+            Replica best = null;
+            int bestLoad = Integer.MAX_VALUE;
+            for (Replica replica : replicas) {
+                int load = replica.pool.activeCount() + replica.pool.pendingCount();
+                if (load < bestLoad && replica.isUsable(now, maxLagMillis)) {
+                    best = replica;
+                    bestLoad = load;
+                }
+            }
+            return best;
+        }
+
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (replica.isUsable(now, maxLagMillis)) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    private void checkLag() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.pool.get();
+                 Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery(LAG_SQL)) {
+                resultSet.next();
+                long lagMillis = resultSet.getLong(1);
+                if (replica.lagMillis > maxLagMillis != lagMillis > maxLagMillis) {
+                    LOGGER.log(INFO, "Replica " + replica.pool.name() + " lag is " + lagMillis + " ms");
+                }
+                replica.lagMillis = lagMillis;
+                replica.markUp();
+            } catch (SQLException | RuntimeException e) {
+                if (!replica.down) {
+                    LOGGER.log(WARNING, "Lag check of replica " + replica.pool.name() + " failed", e);
+                }
+                replica.markDown(System.nanoTime() + retryNanos);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        lagChecker.shutdownNow();
+        for (Replica replica : replicas) {
+            replica.pool.close();
+        }
+    }
+
+    enum Balancing {
+        ROUND_ROBIN,
+        LEAST_BUSY
+    }
+
+    private static final class Replica {
+
+        private final ConnectionPool pool;
+        private volatile long downUntilNanos;
+        private volatile boolean down;
+        private volatile long lagMillis;
+
+        private Replica(ConnectionPool pool) {
+            this.pool = pool;
+        }
+
+        private boolean isUsable(long now, long maxLagMillis) {
+            return (!down || now - downUntilNanos >= 0) && lagMillis <= maxLagMillis;
+        }
+
+        private void markDown(long untilNanos) {
+            downUntilNanos = untilNanos;
+            down = true;
+        }
+
+        private void markUp() {
+            down = false;
+        }
+    }
+}
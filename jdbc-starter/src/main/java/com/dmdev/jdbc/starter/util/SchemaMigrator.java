@@ -0,0 +1,203 @@
+package com.dmdev.jdbc.starter.util;
+
+import com.dmdev.jdbc.starter.exception.MigrationException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import static java.lang.System.Logger.Level.INFO;
+
+/**
+ * Applies the versioned scripts {@code db/migration/V<version>__<description>.sql} from the classpath
+ * on top of the baseline {@code schema.sql}. Each pending script runs in its own transaction together
+ * with its row in {@code schema_history}, so a failing script leaves nothing behind and is retried on
+ * the next start. A transaction-level advisory lock keeps concurrently starting instances from
+ * applying the same script twice.
+ * <p>
+ * Applied scripts must not be edited: a checksum that differs from the recorded one, or a new script
+ * numbered below the latest applied version, fails the migration. Statements that cannot run inside a
+ * transaction, such as {@code CREATE INDEX CONCURRENTLY}, do not belong in these scripts.
+ * <p>
+ * Runs on pool start-up when {@code db.migration.enabled} is set.
+ */
+public final class SchemaMigrator {
+
+    private static final System.Logger LOGGER = System.getLogger(SchemaMigrator.class.getName());
+    private static final String LOCATION = "db/migration";
+    private static final Pattern SCRIPT_NAME = Pattern.compile("V(\\d+)__(\\w+)\\.sql");
+    private static final long LOCK_KEY = 0x7363686D61L;
+
+    private static final String LOCK_SQL = """
+            SELECT pg_advisory_xact_lock(?)
+            """;
+
+    private static final String CREATE_HISTORY_SQL = """
+            CREATE TABLE IF NOT EXISTS schema_history
+            (
+                version INT PRIMARY KEY ,
+                description VARCHAR(256) NOT NULL ,
+                checksum BIGINT NOT NULL ,
+                installed_on TIMESTAMP NOT NULL DEFAULT now() ,
+                execution_ms BIGINT NOT NULL
+            )
+            """;
+
+    private static final String FIND_APPLIED_SQL = """
+            SELECT version, checksum
+            FROM schema_history
+            """;
+
+    private static final String SAVE_SQL = """
+            INSERT INTO schema_history (version, description, checksum, execution_ms)
+            VALUES (?, ?, ?, ?)
+            """;
+
+    private SchemaMigrator() {
+    }
+
+    /**
+     * Applies every pending script in version order and returns how many were applied.
+     */
+    public static int migrate() {
+        List<Script> scripts = scripts();
+        int applied = 0;
+        for (Script script : scripts) {
+            if (TransactionTemplate.of(Propagation.REQUIRES_NEW).execute(connection -> apply(connection, script, scripts))) {
+                applied++;
+            }
+        }
+        return applied;
+    }
+
+    private static boolean apply(Connection connection, Script script, List<Script> scripts) throws SQLException {
+        try (PreparedStatement preparedStatement = connection.prepareStatement(LOCK_SQL)) {
+            preparedStatement.setLong(1, LOCK_KEY);
+            preparedStatement.executeQuery();
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(CREATE_HISTORY_SQL);
+        }
+
+        Map<Integer, Long> history = history(connection);
+        verify(history, scripts);
+        if (history.containsKey(script.version())) {
+            return false;
+        }
+        int latest = history.keySet().stream().mapToInt(Integer::intValue).max().orElse(0);
+        if (script.version() < latest) {
+            throw new MigrationException(script + " is pending but V" + latest + " is already applied");
+        }
+
+        long startNanos = System.nanoTime();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(script.sql());
+        } catch (SQLException e) {
+            throw new MigrationException(script + " failed", e);
+        }
+        long executionMs = (System.nanoTime() - startNanos) / 1_000_000;
+
+        try (PreparedStatement preparedStatement = connection.prepareStatement(SAVE_SQL)) {
+            preparedStatement.setInt(1, script.version());
+            preparedStatement.setString(2, script.description());
+            preparedStatement.setLong(3, script.checksum());
+            preparedStatement.setLong(4, executionMs);
+            preparedStatement.executeUpdate();
+        }
+        LOGGER.log(INFO, "Applied {0} in {1} ms", script, executionMs);
+        return true;
+    }
+
+    private static Map<Integer, Long> history(Connection connection) throws SQLException {
+        Map<Integer, Long> history = new HashMap<>();
+        try (PreparedStatement preparedStatement = connection.prepareStatement(FIND_APPLIED_SQL)) {
+            ResultSet resultSet = preparedStatement.executeQuery();
+            while (resultSet.next()) {
+                history.put(resultSet.getInt(1), resultSet.getLong(2));
+            }
+        }
+        return history;
+    }
+
+    private static void verify(Map<Integer, Long> history, List<Script> scripts) {
+        for (Script script : scripts) {
+            Long checksum = history.get(script.version());
+            if (checksum != null && checksum != script.checksum()) {
+                throw new MigrationException(script + " was changed after it had been applied");
+            }
+        }
+    }
+
+    private static List<Script> scripts() {
+        URL url = SchemaMigrator.class.getClassLoader().getResource(LOCATION);
+        if (url == null) {
+            return List.of();
+        }
+        try {
+            URI uri = url.toURI();
+            if ("jar".equals(uri.getScheme())) {
+                try (FileSystem jar = FileSystems.newFileSystem(uri, Map.of())) {
+                    return scripts(jar.getPath(LOCATION));
+                }
+            }
+            return scripts(Path.of(uri));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (URISyntaxException e) {
+            throw new MigrationException("Unable to list " + url, e);
+        }
+    }
+
+    private static List<Script> scripts(Path directory) throws IOException {
+        List<Script> scripts = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Matcher matcher = SCRIPT_NAME.matcher(file.getFileName().toString());
+                if (!matcher.matches()) {
+                    continue;
+                }
+                byte[] bytes = Files.readAllBytes(file);
+                CRC32 checksum = new CRC32();
+                checksum.update(bytes);
+                scripts.add(new Script(Integer.parseInt(matcher.group(1)), matcher.group(2).replace('_', ' '),
+                        new String(bytes, StandardCharsets.UTF_8), checksum.getValue()));
+            }
+        }
+        scripts.sort(Comparator.comparingInt(Script::version));
+        for (int i = 1; i < scripts.size(); i++) {
+            if (scripts.get(i).version() == scripts.get(i - 1).version()) {
+                throw new MigrationException("Duplicate migration version V" + scripts.get(i).version());
+            }
+        }
+        return scripts;
+    }
+
+    private record Script(int version, String description, String sql, long checksum) {
+
+        @Override
+        public String toString() {
+            return "V" + version + " " + description;
+        }
+    }
+}
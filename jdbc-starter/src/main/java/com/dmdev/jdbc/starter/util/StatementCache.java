@@ -0,0 +1,93 @@
+package com.dmdev.jdbc.starter.util;
+
+import com.dmdev.jdbc.starter.metrics.Counter;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static java.lang.System.Logger.Level.DEBUG;
+
+final class StatementCache {
+
+    private static final System.Logger LOGGER = System.getLogger(StatementCache.class.getName());
+
+    private final int maxSize;
+    private final Counter hits;
+    private final Counter misses;
+    private final Map<StatementKey, PreparedStatement> statements;
+
+    StatementCache(int maxSize, Counter hits, Counter misses) {
+        this.maxSize = maxSize;
+        this.hits = hits;
+        this.misses = misses;
+        this.statements = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<StatementKey, PreparedStatement> eldest) {
+                if (size() > StatementCache.this.maxSize) {
+                    closeQuietly(eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    boolean isEnabled() {
+        return maxSize > 0;
+    }
+
+    synchronized PreparedStatement take(StatementKey key) throws SQLException {
+        PreparedStatement statement = statements.remove(key);
+        if (statement == null || statement.isClosed()) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return statement;
+    }
+
+    void recycle(StatementKey key, PreparedStatement statement) {
+        try {
+            if (statement.isClosed()) {
+                return;
+            }
+            statement.clearParameters();
+            statement.clearBatch();
+            statement.clearWarnings();
+            statement.setFetchSize(0);
+            statement.setMaxRows(0);
+            statement.setQueryTimeout(0);
+            put(key, statement);
+        } catch (SQLException e) {
+            closeQuietly(statement);
+        }
+    }
+
+    synchronized void closeAll() {
+        for (PreparedStatement statement : statements.values()) {
+            closeQuietly(statement);
+        }
+        statements.clear();
+    }
+
+    private synchronized void put(StatementKey key, PreparedStatement statement) {
+        PreparedStatement previous = statements.put(key, statement);
+        if (previous != null && previous != statement) {
+            closeQuietly(previous);
+        }
+    }
+
+    private static void closeQuietly(Statement statement) {
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            LOGGER.log(DEBUG, "Failed to close cached statement", e);
+        }
+    }
+
+    record StatementKey(String sql, int resultSetType, int concurrency, int holdability, int autoGeneratedKeys) {
+    }
+}
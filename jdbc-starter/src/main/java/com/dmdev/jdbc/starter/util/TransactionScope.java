@@ -0,0 +1,176 @@
+package com.dmdev.jdbc.starter.util;
+
+import com.dmdev.jdbc.starter.exception.DaoException;
+import com.dmdev.jdbc.starter.metrics.Counter;
+import com.dmdev.jdbc.starter.metrics.MetricsRegistry;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.lang.System.Logger.Level.DEBUG;
+import static java.lang.System.Logger.Level.WARNING;
+
+/**
+ * A physical transaction bound to the current thread. While it is bound,
+ * {@link ConnectionPoolManager#get()} hands out its connection instead of borrowing a new one.
+ */
+final class TransactionScope {
+
+    private static final System.Logger LOGGER = System.getLogger(TransactionScope.class.getName());
+    private static final ThreadLocal<TransactionScope> CURRENT = new ThreadLocal<>();
+
+    private static final Counter COMMITTED;
+    private static final Counter ROLLED_BACK;
+    private static final Counter REUSED;
+
+    static {
+        MetricsRegistry registry = MetricsRegistry.getInstance();
+        COMMITTED = registry.counter("tx.committed");
+        ROLLED_BACK = registry.counter("tx.rolledBack");
+        REUSED = registry.counter("tx.connection.reused");
+    }
+
+    private final PooledConnection connection;
+    private final boolean readOnly;
+    private final List<Runnable> completionActions = new ArrayList<>();
+    private boolean rollbackOnly;
+
+    private TransactionScope(PooledConnection connection, boolean readOnly) {
+        this.connection = connection;
+        this.readOnly = readOnly;
+    }
+
+    static TransactionScope current() {
+        return CURRENT.get();
+    }
+
+    static <T> T begin(boolean readOnly, int isolation, TransactionCallback<T> callback) {
+        TransactionScope suspended = CURRENT.get();
+        TransactionScope scope = new TransactionScope(ConnectionPoolManager.acquire(), readOnly);
+        CURRENT.set(scope);
+        try {
+            return scope.run(isolation, callback);
+        } finally {
+            if (suspended == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(suspended);
+            }
+            scope.close();
+        }
+    }
+
+    boolean isReadOnly() {
+        return readOnly;
+    }
+
+    Connection borrow() {
+        REUSED.increment();
+        return connection.retain();
+    }
+
+    void afterCompletion(Runnable action) {
+        completionActions.add(action);
+    }
+
+    <T> T join(TransactionCallback<T> callback) {
+        try {
+            return callback.doInTransaction(connection);
+        } catch (SQLException e) {
+            rollbackOnly = true;
+            throw new DaoException(e);
+        } catch (RuntimeException | Error e) {
+            rollbackOnly = true;
+            throw e;
+        }
+    }
+
+    <T> T nest(TransactionCallback<T> callback) {
+        Savepoint savepoint;
+        try {
+            savepoint = connection.setSavepoint();
+        } catch (SQLException e) {
+            throw new DaoException(e);
+        }
+        try {
+            T result = callback.doInTransaction(connection);
+            connection.releaseSavepoint(savepoint);
+            return result;
+        } catch (SQLException e) {
+            rollback(savepoint, e);
+            throw new DaoException(e);
+        } catch (RuntimeException | Error e) {
+            rollback(savepoint, e);
+            throw e;
+        }
+    }
+
+    private <T> T run(int isolation, TransactionCallback<T> callback) {
+        T result;
+        try {
+            if (isolation != Connection.TRANSACTION_NONE) {
+                connection.setTransactionIsolation(isolation);
+            }
+            if (readOnly) {
+                connection.setReadOnly(true);
+            }
+            connection.setAutoCommit(false);
+            result = callback.doInTransaction(connection);
+        } catch (SQLException e) {
+            rollback(e);
+            throw new DaoException(e);
+        } catch (RuntimeException | Error e) {
+            rollback(e);
+            throw e;
+        }
+
+        if (rollbackOnly) {
+            IllegalStateException e = new IllegalStateException("Transaction rolled back because a joined scope failed");
+            rollback(e);
+            throw e;
+        }
+        try {
+            connection.commit();
+            COMMITTED.increment();
+            return result;
+        } catch (SQLException e) {
+            rollback(e);
+            throw new DaoException(e);
+        }
+    }
+
+    private void rollback(Throwable cause) {
+        try {
+            connection.rollback();
+            ROLLED_BACK.increment();
+        } catch (SQLException e) {
+            cause.addSuppressed(e);
+        }
+    }
+
+    private void rollback(Savepoint savepoint, Throwable cause) {
+        try {
+            connection.rollback(savepoint);
+        } catch (SQLException e) {
+            cause.addSuppressed(e);
+        }
+    }
+
+    private void close() {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            LOGGER.log(DEBUG, "Failed to close a transaction connection", e);
+        }
+        for (Runnable action : completionActions) {
+            try {
+                action.run();
+            } catch (RuntimeException e) {
+                LOGGER.log(WARNING, "Transaction completion action failed", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.dmdev.jdbc.starter.util;
+
+import java.sql.Connection;
+
+/**
+ * Runs a unit of work in a transaction bound to the calling thread. Every DAO call made inside
+ * the callback, directly or through other DAOs, gets the scope's connection from
+ * {@link ConnectionPoolManager#get()}, so the work borrows one pooled connection and commits or
+ * rolls back as a whole. The binding is per thread: work handed to another thread (for example
+ * through {@code AsyncDao}) runs outside the transaction.
+ * <p>
+ * The callback must not close the connection it is given. An {@link java.sql.SQLException} from
+ * the callback is rethrown as {@link com.dmdev.jdbc.starter.exception.DaoException}.
+ * <pre>{@code
+ * Ticket saved = TransactionTemplate.required().execute(connection -> {
+ *     flightDao.update(flight);
+ *     return ticketDao.save(ticket);
+ * });
+ * }</pre>
+ */
+public final class TransactionTemplate {
+
+    private static final TransactionTemplate REQUIRED =
+            new TransactionTemplate(Propagation.REQUIRED, false, Connection.TRANSACTION_NONE);
+
+    private final Propagation propagation;
+    private final boolean readOnly;
+    private final int isolation;
+
+    private TransactionTemplate(Propagation propagation, boolean readOnly, int isolation) {
+        this.propagation = propagation;
+        this.readOnly = readOnly;
+        this.isolation = isolation;
+    }
+
+    public static TransactionTemplate required() {
+        return REQUIRED;
+    }
+
+    public static TransactionTemplate of(Propagation propagation) {
+        return new TransactionTemplate(propagation, false, Connection.TRANSACTION_NONE);
+    }
+
+    /**
+     * Marks new transactions read-only. Joining a read-only transaction with a read-write
+     * template fails.
+     */
+    public TransactionTemplate readOnly() {
+        return new TransactionTemplate(propagation, true, isolation);
+    }
+
+    /**
+     * Isolation level for new transactions, one of the {@code Connection.TRANSACTION_*} constants.
+     * Ignored when the template joins an existing transaction.
+     */
+    public TransactionTemplate withIsolation(int isolation) {
+        return new TransactionTemplate(propagation, readOnly, isolation);
+    }
+
+    public <T> T execute(TransactionCallback<T> callback) {
+        TransactionScope current = TransactionScope.current();
+        if (current == null || propagation == Propagation.REQUIRES_NEW) {
+            return TransactionScope.begin(readOnly, isolation, callback);
+        }
+        if (current.isReadOnly() && !readOnly) {
+            throw new IllegalStateException("Cannot run a read-write scope inside a read-only transaction");
+        }
+        return propagation == Propagation.NESTED
+                ? current.nest(callback)
+                : current.join(callback);
+    }
+
+    public static boolean isActive() {
+        return TransactionScope.current() != null;
+    }
+
+    /**
+     * Whether the current thread runs in a transaction that may hold uncommitted writes.
+     */
+    public static boolean isReadWriteActive() {
+        TransactionScope current = TransactionScope.current();
+        return current != null && !current.isReadOnly();
+    }
+
+    /**
+     * Runs {@code action} once the current transaction has committed or rolled back and released
+     * its connection, or right away when there is no transaction.
+     */
+    public static void afterCompletion(Runnable action) {
+        TransactionScope current = TransactionScope.current();
+        if (current == null) {
+            action.run();
+        } else {
+            current.afterCompletion(action);
+        }
+    }
+}
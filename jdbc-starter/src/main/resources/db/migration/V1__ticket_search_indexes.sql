@@ -0,0 +1,12 @@
+-- Indexes behind TicketFilter text criteria (see TextMatch).
+-- On a live database create them with CREATE INDEX CONCURRENTLY, one statement at a time.
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- PREFIX: range predicates on passenger_name COLLATE "C" / seat_no COLLATE "C"
+CREATE INDEX IF NOT EXISTS ticket_passenger_name_c_idx ON ticket (passenger_name COLLATE "C");
+CREATE INDEX IF NOT EXISTS ticket_seat_no_c_idx ON ticket (seat_no COLLATE "C");
+
+-- CONTAINS and FUZZY: ILIKE '%term%' and the % similarity operator
+CREATE INDEX IF NOT EXISTS ticket_passenger_name_trgm_idx ON ticket USING gin (passenger_name gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS ticket_seat_no_trgm_idx ON ticket USING gin (seat_no gin_trgm_ops);
@@ -0,0 +1,4 @@
+-- Departure range queries (PrepareStatementEx, FlightDao) scan flight without it.
+-- ticket.flight_id needs no index of its own: unique_flight_id_seat_no_idx leads with it.
+
+CREATE INDEX IF NOT EXISTS flight_departure_date_idx ON flight (departure_date);
@@ -0,0 +1,3 @@
+-- FlightDao.findByDepartureWindow with an airport: equality first, then the departure range.
+
+CREATE INDEX IF NOT EXISTS flight_departure_airport_code_date_idx ON flight (departure_airport_code, departure_date);
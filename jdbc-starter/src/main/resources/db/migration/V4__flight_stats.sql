@@ -0,0 +1,66 @@
+-- Seats sold and revenue per flight, kept current by triggers on ticket in the writing transaction.
+-- Statement-level triggers see all rows of a batch or COPY at once and touch each flight once per statement.
+-- Verify and repair with FlightStatsDao.verify() / rebuild().
+
+LOCK TABLE ticket IN SHARE ROW EXCLUSIVE MODE;
+
+CREATE TABLE flight_stats
+(
+    flight_id BIGINT PRIMARY KEY ,
+    seats_sold INT NOT NULL ,
+    revenue NUMERIC(14, 2) NOT NULL
+);
+
+INSERT INTO flight_stats (flight_id, seats_sold, revenue)
+SELECT flight_id, count(*), sum(cost)
+FROM ticket
+GROUP BY flight_id;
+
+CREATE OR REPLACE FUNCTION flight_stats_apply() RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        INSERT INTO flight_stats (flight_id, seats_sold, revenue)
+        SELECT flight_id, count(*), sum(cost)
+        FROM new_rows
+        GROUP BY flight_id
+        ORDER BY flight_id
+        ON CONFLICT (flight_id) DO UPDATE
+        SET seats_sold = flight_stats.seats_sold + EXCLUDED.seats_sold,
+            revenue = flight_stats.revenue + EXCLUDED.revenue;
+    ELSIF TG_OP = 'DELETE' THEN
+        INSERT INTO flight_stats (flight_id, seats_sold, revenue)
+        SELECT flight_id, -count(*), -sum(cost)
+        FROM old_rows
+        GROUP BY flight_id
+        ORDER BY flight_id
+        ON CONFLICT (flight_id) DO UPDATE
+        SET seats_sold = flight_stats.seats_sold + EXCLUDED.seats_sold,
+            revenue = flight_stats.revenue + EXCLUDED.revenue;
+    ELSE
+        INSERT INTO flight_stats (flight_id, seats_sold, revenue)
+        SELECT flight_id, sum(seats), sum(cost)
+        FROM (SELECT flight_id, 1 AS seats, cost FROM new_rows
+              UNION ALL
+              SELECT flight_id, -1, -cost FROM old_rows) AS delta
+        GROUP BY flight_id
+        HAVING sum(seats) <> 0 OR sum(cost) <> 0
+        ORDER BY flight_id
+        ON CONFLICT (flight_id) DO UPDATE
+        SET seats_sold = flight_stats.seats_sold + EXCLUDED.seats_sold,
+            revenue = flight_stats.revenue + EXCLUDED.revenue;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER flight_stats_insert AFTER INSERT ON ticket
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION flight_stats_apply();
+
+CREATE TRIGGER flight_stats_update AFTER UPDATE ON ticket
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION flight_stats_apply();
+
+CREATE TRIGGER flight_stats_delete AFTER DELETE ON ticket
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION flight_stats_apply();
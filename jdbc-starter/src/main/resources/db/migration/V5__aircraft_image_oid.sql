@@ -0,0 +1,6 @@
+-- Aircraft images (AircraftImageDao): small ones inline in image, large ones as a large object in image_oid.
+-- schema.sql already has both columns; this brings databases created before them up to date.
+
+ALTER TABLE aircraft
+    ADD COLUMN IF NOT EXISTS image BYTEA,
+    ADD COLUMN IF NOT EXISTS image_oid OID;
@@ -0,0 +1,109 @@
+-- Opt-in: moves flight to monthly range partitions on departure_date, so departure-window queries
+-- (FlightDao.findByDepartureWindow) only read the months they cover.
+-- Not a db/migration script: run it once by hand after V3 (PostgreSQL 13+), in a maintenance window.
+-- The copy runs in one transaction that keeps flight locked until it commits.
+--
+-- What changes:
+--   * the primary key becomes (id, departure_date); flight_id_seq still hands out unique ids
+--   * ticket.flight_id cannot reference a partitioned flight by id alone, so the foreign key is replaced
+--     by the ticket_flight_exists / flight_has_no_tickets triggers. Like the foreign key they lock the
+--     other row FOR KEY SHARE, so a flight cannot be deleted under a ticket written concurrently; a ticket
+--     write waiting on a flight that moves to another month fails and has to be retried. Each check
+--     probes flight_id_idx in every partition
+--   * rows outside the created months go to flight_default, and a month cannot get its own partition
+--     once flight_default holds rows for it. Create partitions ahead of time, e.g. monthly:
+--       SELECT create_flight_partitions(now()::date, (now() + INTERVAL '12 months')::date);
+--
+-- The old table stays as flight_flat. To go back before dropping it: drop flight and the triggers,
+-- rename flight_flat and its indexes back, copy rows inserted since, restore ticket_flight_id_fkey and
+-- make flight_id_seq owned by flight.id again. Once the new layout is verified: DROP TABLE flight_flat;
+
+BEGIN;
+
+LOCK TABLE flight IN ACCESS EXCLUSIVE MODE;
+
+ALTER TABLE flight RENAME TO flight_flat;
+ALTER INDEX flight_pkey RENAME TO flight_flat_pkey;
+ALTER INDEX IF EXISTS flight_departure_date_idx RENAME TO flight_flat_departure_date_idx;
+ALTER INDEX IF EXISTS flight_departure_airport_code_date_idx RENAME TO flight_flat_departure_airport_code_date_idx;
+ALTER TABLE ticket DROP CONSTRAINT ticket_flight_id_fkey;
+
+CREATE TABLE flight
+(
+    id BIGINT NOT NULL DEFAULT nextval('flight_id_seq') ,
+    flight_no VARCHAR(16) NOT NULL ,
+    departure_date TIMESTAMP NOT NULL ,
+    departure_airport_code CHAR(3) REFERENCES airport(code) NOT NULL ,
+    arrival_date TIMESTAMP NOT NULL ,
+    arrival_airport_code CHAR(3) REFERENCES airport(code) NOT NULL ,
+    aircraft_id INT REFERENCES aircraft (id) NOT NULL ,
+    status VARCHAR(32) NOT NULL ,
+    PRIMARY KEY (id, departure_date)
+) PARTITION BY RANGE (departure_date);
+
+ALTER SEQUENCE flight_id_seq OWNED BY flight.id;
+
+CREATE TABLE flight_default PARTITION OF flight DEFAULT;
+
+-- one partition per month in [from_date, to_date), named flight_YYYY_MM
+CREATE OR REPLACE FUNCTION create_flight_partitions(from_date DATE, to_date DATE) RETURNS VOID AS $$
+DECLARE
+    partition_start DATE := date_trunc('month', from_date);
+BEGIN
+    WHILE partition_start < to_date LOOP
+        EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF flight FOR VALUES FROM (%L) TO (%L)',
+                       'flight_' || to_char(partition_start, 'YYYY_MM'), partition_start, partition_start + INTERVAL '1 month');
+        partition_start := partition_start + INTERVAL '1 month';
+    END LOOP;
+END;
+$$ LANGUAGE plpgsql;
+
+SELECT create_flight_partitions(coalesce(min(departure_date), now())::date,
+                                (greatest(max(departure_date), now()) + INTERVAL '12 months')::date)
+FROM flight_flat;
+
+INSERT INTO flight (id, flight_no, departure_date, departure_airport_code, arrival_date, arrival_airport_code,
+                    aircraft_id, status)
+SELECT id, flight_no, departure_date, departure_airport_code, arrival_date, arrival_airport_code, aircraft_id, status
+FROM flight_flat;
+
+-- created after the copy, which is faster than maintaining them row by row
+CREATE INDEX flight_id_idx ON flight (id);
+CREATE INDEX flight_departure_date_idx ON flight (departure_date);
+CREATE INDEX flight_departure_airport_code_date_idx ON flight (departure_airport_code, departure_date);
+
+CREATE OR REPLACE FUNCTION ticket_flight_exists() RETURNS TRIGGER AS $$
+BEGIN
+    -- held until commit: a concurrent delete of the flight waits, then finds this ticket
+    PERFORM 1 FROM flight WHERE id = NEW.flight_id FOR KEY SHARE;
+    IF NOT FOUND THEN
+        RAISE foreign_key_violation USING MESSAGE = format('flight %s does not exist', NEW.flight_id);
+    END IF;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER ticket_flight_exists BEFORE INSERT OR UPDATE OF flight_id ON ticket
+    FOR EACH ROW EXECUTE FUNCTION ticket_flight_exists();
+
+-- AFTER, so that an update moving a flight to another month, which deletes and re-inserts the row,
+-- finds the flight again and passes
+CREATE OR REPLACE FUNCTION flight_has_no_tickets() RETURNS TRIGGER AS $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM flight WHERE id = OLD.id) THEN
+        RETURN NULL;
+    END IF;
+    PERFORM 1 FROM ticket WHERE flight_id = OLD.id FOR KEY SHARE;
+    IF FOUND THEN
+        RAISE foreign_key_violation USING MESSAGE = format('flight %s still has tickets', OLD.id);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER flight_has_no_tickets AFTER DELETE ON flight
+    FOR EACH ROW EXECUTE FUNCTION flight_has_no_tickets();
+
+COMMIT;
+
+ANALYZE flight;
@@ -10,7 +10,9 @@ CREATE TABLE airport
 CREATE TABLE aircraft
 (
     id SERIAL PRIMARY KEY ,
-    model VARCHAR(128) NOT NULL
+    model VARCHAR(128) NOT NULL ,
+    image BYTEA ,
+    image_oid OID
 );
 
 CREATE TABLE seat
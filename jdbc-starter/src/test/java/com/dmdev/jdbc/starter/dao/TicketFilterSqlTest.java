@@ -0,0 +1,99 @@
+package com.dmdev.jdbc.starter.dao;
+
+import com.dmdev.jdbc.starter.dto.TextMatch;
+import com.dmdev.jdbc.starter.dto.TicketFilter;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TicketFilterSqlTest {
+
+    private static final TicketFilterSql FILTER_SQL = new TicketFilterSql("SELECT * FROM ticket", " LIMIT ?");
+
+    @Test
+    void shortContainsTermStaysSubstringMatch() throws SQLException {
+        TicketFilter filter = new TicketFilter(10, 0, null, "1");
+        assertEquals(TextMatch.CONTAINS, filter.seatNoMatch());
+
+        TicketFilterSql.Template template = FILTER_SQL.template(filter);
+        assertEquals("SELECT * FROM ticket WHERE seat_no LIKE ? LIMIT ?", template.sql());
+
+        Map<Integer, Object> parameters = bind(template, filter);
+        String pattern = (String) parameters.get(1);
+        for (String seatNo : List.of("A1", "B1", "C1", "D1")) {
+            assertTrue(like(seatNo, pattern), seatNo + " LIKE " + pattern);
+        }
+        assertFalse(like("A2", pattern));
+    }
+
+    @Test
+    void shortPassengerNameContainsStaysCaseInsensitive() throws SQLException {
+        TicketFilter filter = new TicketFilter(10, 0, null, null).withPassengerName("iv", TextMatch.CONTAINS);
+
+        TicketFilterSql.Template template = FILTER_SQL.template(filter);
+        assertEquals("SELECT * FROM ticket WHERE passenger_name ILIKE ? LIMIT ?", template.sql());
+        assertEquals("%iv%", bind(template, filter).get(1));
+    }
+
+    @Test
+    void prefixOnlyWhenAsked() throws SQLException {
+        TicketFilter filter = new TicketFilter(10, 0, null, null).withSeatNo("A", TextMatch.PREFIX);
+
+        TicketFilterSql.Template template = FILTER_SQL.template(filter);
+        assertEquals("SELECT * FROM ticket WHERE seat_no COLLATE \"C\" >= ? AND seat_no COLLATE \"C\" < ? LIMIT ?",
+                template.sql());
+        Map<Integer, Object> parameters = bind(template, filter);
+        assertEquals("A", parameters.get(1));
+        assertEquals("B", parameters.get(2));
+    }
+
+    @Test
+    void prefixEndingInMaxCodePointHasUpperBound() throws SQLException {
+        String max = new String(Character.toChars(Character.MAX_CODE_POINT));
+        TicketFilter filter = new TicketFilter(10, 0, null, null).withSeatNo("A" + max, TextMatch.PREFIX);
+
+        assertEquals("B", bind(FILTER_SQL.template(filter), filter).get(2));
+    }
+
+    private static Map<Integer, Object> bind(TicketFilterSql.Template template, TicketFilter filter) throws SQLException {
+        Map<Integer, Object> parameters = new HashMap<>();
+        PreparedStatement preparedStatement = (PreparedStatement) Proxy.newProxyInstance(
+                PreparedStatement.class.getClassLoader(), new Class<?>[]{PreparedStatement.class},
+                (proxy, method, args) -> {
+                    if (method.getName().startsWith("set") && args != null && args.length == 2) {
+                        parameters.put((Integer) args[0], args[1]);
+                    }
+                    return null;
+                });
+        template.bind(preparedStatement, filter);
+        return parameters;
+    }
+
+    // SQL LIKE with the default backslash escape
+    private static boolean like(String value, String pattern) {
+        StringBuilder regex = new StringBuilder();
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c == '\\') {
+                regex.append(Pattern.quote(String.valueOf(pattern.charAt(++i))));
+            } else if (c == '%') {
+                regex.append(".*");
+            } else if (c == '_') {
+                regex.append('.');
+            } else {
+                regex.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        return value.matches(regex.toString());
+    }
+}
@@ -0,0 +1,193 @@
+package com.dmdev.jdbc.starter.trace;
+
+import com.dmdev.jdbc.starter.dao.TicketDao;
+import com.dmdev.jdbc.starter.util.ConnectionPoolManager;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.DriverPropertyInfo;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QueryTracerTest {
+
+    private static final String URL = "jdbc:stub:trace";
+    private static final List<String> TICKET_COLUMNS = List.of("id", "passenger_no", "passenger_name", "flight_id",
+            "seat_no", "cost", "f_id", "f_flight_no", "f_departure_date", "f_departure_airport_code",
+            "f_arrival_date", "f_arrival_airport_code", "f_aircraft_id", "f_status");
+
+    private static final BlockingQueue<String> MESSAGES = new LinkedBlockingQueue<>();
+    private static final Logger TRACE_LOGGER = Logger.getLogger(QueryTracer.class.getName());
+    private static final Handler HANDLER = new Handler() {
+        @Override
+        public void publish(LogRecord record) {
+            MESSAGES.add(record.getMessage());
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    };
+
+    private static Driver driver;
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        System.setProperty("db.url", URL);
+        System.setProperty("trace.sample.rate", "1");
+        driver = new StubDriver();
+        DriverManager.registerDriver(driver);
+        TRACE_LOGGER.addHandler(HANDLER);
+    }
+
+    @AfterAll
+    static void tearDown() throws Exception {
+        TRACE_LOGGER.removeHandler(HANDLER);
+        ConnectionPoolManager.closePool();
+        DriverManager.deregisterDriver(driver);
+    }
+
+    @Test
+    void operationsNest() {
+        QueryTracer.enter("TicketDao.findAll");
+        QueryTracer.enter("FlightDao.findAllByIds");
+        assertEquals("FlightDao.findAllByIds", QueryTracer.currentOperation());
+        QueryTracer.exit();
+        assertEquals("TicketDao.findAll", QueryTracer.currentOperation());
+        QueryTracer.exit();
+        assertNull(QueryTracer.currentOperation());
+    }
+
+    @Test
+    void findByIdIsTracedWithItsOperation() throws InterruptedException {
+        assertTrue(TicketDao.getInstance().findById(1L).isPresent());
+
+        String message = MESSAGES.poll(5, TimeUnit.SECONDS);
+        assertNotNull(message, "no trace logged");
+        assertTrue(message.contains("[TicketDao.findById]"), message);
+    }
+
+    private static final class StubDriver implements Driver {
+
+        @Override
+        public Connection connect(String url, Properties info) {
+            return acceptsURL(url) ? proxy(Connection.class, (method, args) -> switch (method.getName()) {
+                case "isValid" -> true;
+                case "getAutoCommit" -> true;
+                case "getTransactionIsolation" -> Connection.TRANSACTION_READ_COMMITTED;
+                case "prepareStatement" -> statement();
+                default -> defaultValue(method);
+            }) : null;
+        }
+
+        @Override
+        public boolean acceptsURL(String url) {
+            return url.startsWith(URL);
+        }
+
+        @Override
+        public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) {
+            return new DriverPropertyInfo[0];
+        }
+
+        @Override
+        public int getMajorVersion() {
+            return 1;
+        }
+
+        @Override
+        public int getMinorVersion() {
+            return 0;
+        }
+
+        @Override
+        public boolean jdbcCompliant() {
+            return false;
+        }
+
+        @Override
+        public Logger getParentLogger() {
+            return Logger.getGlobal();
+        }
+
+        private static PreparedStatement statement() {
+            return proxy(PreparedStatement.class, (method, args) ->
+                    method.getName().equals("executeQuery") ? oneTicket() : defaultValue(method));
+        }
+
+        // one row, never read to the end: the trace is emitted when the statement is closed
+        private static ResultSet oneTicket() {
+            ResultSetMetaData metaData = proxy(ResultSetMetaData.class, (method, args) -> switch (method.getName()) {
+                case "getColumnCount" -> TICKET_COLUMNS.size();
+                case "getColumnLabel" -> TICKET_COLUMNS.get((Integer) args[0] - 1);
+                default -> defaultValue(method);
+            });
+            return proxy(ResultSet.class, (method, args) -> switch (method.getName()) {
+                case "next" -> true;
+                case "getMetaData" -> metaData;
+                case "getLong" -> 1L;
+                case "getInt" -> 1;
+                case "getString" -> "A1";
+                case "getBigDecimal" -> BigDecimal.TEN;
+                case "getTimestamp" -> new Timestamp(0);
+                default -> defaultValue(method);
+            });
+        }
+
+        private static Object defaultValue(Method method) {
+            Class<?> type = method.getReturnType();
+            if (type == boolean.class) {
+                return false;
+            }
+            if (type == int.class) {
+                return 0;
+            }
+            if (type == long.class) {
+                return 0L;
+            }
+            return null;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> T proxy(Class<T> type, Answer answer) {
+            return (T) Proxy.newProxyInstance(QueryTracerTest.class.getClassLoader(), new Class<?>[]{type},
+                    (proxy, method, args) -> switch (method.getName()) {
+                        case "hashCode" -> System.identityHashCode(proxy);
+                        case "equals" -> proxy == args[0];
+                        case "toString" -> type.getSimpleName() + "Stub";
+                        default -> answer.answer(method, args);
+                    });
+        }
+    }
+
+    @FunctionalInterface
+    private interface Answer {
+        Object answer(Method method, Object[] args);
+    }
+}